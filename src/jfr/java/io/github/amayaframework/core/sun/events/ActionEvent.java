@@ -0,0 +1,15 @@
+package io.github.amayaframework.core.sun.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(SunEvents.PREFIX + "Action")
+@Label("Pipeline Action")
+@Category({"Amaya", "Sun"})
+@Description("Execution of a pipeline action of the sun implementation")
+final class ActionEvent extends jdk.jfr.Event {
+    @Label("Action")
+    String action;
+}
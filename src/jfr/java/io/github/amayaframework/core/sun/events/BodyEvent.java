@@ -0,0 +1,23 @@
+package io.github.amayaframework.core.sun.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(SunEvents.PREFIX + "BodyWrite")
+@Label("Body Write")
+@Category({"Amaya", "Sun"})
+@Description("Sending of the response headers and body")
+final class BodyEvent extends jdk.jfr.Event {
+    @Label("Status")
+    int status;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Streamed")
+    boolean streamed;
+}
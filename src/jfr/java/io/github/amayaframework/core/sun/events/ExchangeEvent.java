@@ -0,0 +1,36 @@
+package io.github.amayaframework.core.sun.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(SunEvents.PREFIX + "Exchange")
+@Label("Exchange")
+@Category({"Amaya", "Sun"})
+@Description("Handling of an http exchange from its receipt until it is closed")
+final class ExchangeEvent extends jdk.jfr.Event {
+    @Label("Controller")
+    String controller;
+
+    @Label("Route")
+    String route;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+}
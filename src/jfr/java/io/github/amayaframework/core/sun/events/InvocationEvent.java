@@ -0,0 +1,18 @@
+package io.github.amayaframework.core.sun.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(SunEvents.PREFIX + "Invocation")
+@Label("Controller Invocation")
+@Category({"Amaya", "Sun"})
+@Description("Execution of the input pipeline, ending with the call of the controller method")
+final class InvocationEvent extends jdk.jfr.Event {
+    @Label("Controller")
+    String controller;
+
+    @Label("Route")
+    String route;
+}
@@ -0,0 +1,143 @@
+package io.github.amayaframework.core.sun.events;
+
+import io.github.amayaframework.http.HttpCode;
+import jdk.jfr.EventType;
+
+/**
+ * The only class touching the Flight Recorder API directly. It is compiled for Java 11 and loaded
+ * by {@link SunEvents} only if the runtime provides the API.
+ */
+final class JfrEvents implements EventRecorder {
+    private static final EventType EXCHANGE = EventType.getEventType(ExchangeEvent.class);
+    private static final EventType ROUTING = EventType.getEventType(RoutingEvent.class);
+    private static final EventType ACTION = EventType.getEventType(ActionEvent.class);
+    private static final EventType INVOCATION = EventType.getEventType(InvocationEvent.class);
+    private static final EventType BODY = EventType.getEventType(BodyEvent.class);
+
+    private static int toStatus(HttpCode code) {
+        return code == null ? 0 : code.getCode();
+    }
+
+    @Override
+    public Object beginExchange() {
+        if (!EXCHANGE.isEnabled()) {
+            return null;
+        }
+        ExchangeEvent ret = new ExchangeEvent();
+        ret.begin();
+        return ret;
+    }
+
+    @Override
+    public void endExchange(Object event,
+                            String controller,
+                            String route,
+                            String method,
+                            String path,
+                            HttpCode status,
+                            long read,
+                            long written) {
+        ExchangeEvent ret = (ExchangeEvent) event;
+        ret.end();
+        if (!ret.shouldCommit()) {
+            return;
+        }
+        ret.controller = controller;
+        ret.route = route;
+        ret.method = method;
+        ret.path = path;
+        ret.status = toStatus(status);
+        ret.bytesRead = read;
+        ret.bytesWritten = written;
+        ret.commit();
+    }
+
+    @Override
+    public Object beginRouting() {
+        if (!ROUTING.isEnabled()) {
+            return null;
+        }
+        RoutingEvent ret = new RoutingEvent();
+        ret.begin();
+        return ret;
+    }
+
+    @Override
+    public void endRouting(Object event, String path, String route, boolean cached) {
+        RoutingEvent ret = (RoutingEvent) event;
+        ret.end();
+        if (!ret.shouldCommit()) {
+            return;
+        }
+        ret.path = path;
+        ret.route = route;
+        ret.cached = cached;
+        ret.commit();
+    }
+
+    @Override
+    public Object beginAction() {
+        if (!ACTION.isEnabled()) {
+            return null;
+        }
+        ActionEvent ret = new ActionEvent();
+        ret.begin();
+        return ret;
+    }
+
+    @Override
+    public void endAction(Object event, String action) {
+        ActionEvent ret = (ActionEvent) event;
+        ret.end();
+        if (!ret.shouldCommit()) {
+            return;
+        }
+        ret.action = action;
+        ret.commit();
+    }
+
+    @Override
+    public Object beginInvocation() {
+        if (!INVOCATION.isEnabled()) {
+            return null;
+        }
+        InvocationEvent ret = new InvocationEvent();
+        ret.begin();
+        return ret;
+    }
+
+    @Override
+    public void endInvocation(Object event, String controller, String route) {
+        InvocationEvent ret = (InvocationEvent) event;
+        ret.end();
+        if (!ret.shouldCommit()) {
+            return;
+        }
+        ret.controller = controller;
+        ret.route = route;
+        ret.commit();
+    }
+
+    @Override
+    public Object beginBody() {
+        if (!BODY.isEnabled()) {
+            return null;
+        }
+        BodyEvent ret = new BodyEvent();
+        ret.begin();
+        return ret;
+    }
+
+    @Override
+    public void endBody(Object event, HttpCode status, long bytes, boolean streamed) {
+        BodyEvent ret = (BodyEvent) event;
+        ret.end();
+        if (!ret.shouldCommit()) {
+            return;
+        }
+        ret.status = toStatus(status);
+        ret.bytes = bytes;
+        ret.streamed = streamed;
+        ret.commit();
+    }
+}
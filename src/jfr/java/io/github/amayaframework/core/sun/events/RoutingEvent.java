@@ -0,0 +1,21 @@
+package io.github.amayaframework.core.sun.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(SunEvents.PREFIX + "Routing")
+@Label("Routing")
+@Category({"Amaya", "Sun"})
+@Description("Resolution of the method route of a request")
+final class RoutingEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Route")
+    String route;
+
+    @Label("Cached")
+    boolean cached;
+}
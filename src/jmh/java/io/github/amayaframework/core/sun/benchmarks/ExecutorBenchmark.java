@@ -0,0 +1,113 @@
+package io.github.amayaframework.core.sun.benchmarks;
+
+import io.github.amayaframework.core.contexts.HttpRequest;
+import io.github.amayaframework.core.contexts.HttpResponse;
+import io.github.amayaframework.core.contexts.Responses;
+import io.github.amayaframework.core.methods.Get;
+import io.github.amayaframework.core.sun.SunBuilder;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import io.github.amayaframework.core.sun.memory.MemoryServer;
+import io.github.amayaframework.core.sun.util.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a fixed thread pool with virtual threads on a batch of exchanges dispatched to the server executor,
+ * as the server does, and processed by {@link io.github.amayaframework.core.sun.handlers.SunHandler}
+ * with a controller that blocks for the specified time, as controllers waiting for a database
+ * or a downstream service do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecutorBenchmark {
+    @Param({"fixed", "virtual"})
+    public String executor;
+
+    @Param({"1000"})
+    public int tasks;
+
+    @Param({"200"})
+    public int threads;
+
+    @Param({"1"})
+    public long blockMillis;
+
+    private ExecutorService service;
+    private MemoryServer server;
+    private Executor dispatcher;
+    private MemoryRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        if (executor.equals("virtual")) {
+            if (!VirtualThreads.isSupported()) {
+                throw new IllegalStateException("Virtual threads require Java 21 or later");
+            }
+            service = VirtualThreads.newExecutor();
+        } else {
+            service = Executors.newFixedThreadPool(threads);
+        }
+        server = (MemoryServer) new SunBuilder()
+                .inMemory()
+                .executor(service)
+                .addController("/bench", new BlockingController(blockMillis))
+                .build()
+                .getServer();
+        dispatcher = server.getExecutor();
+        request = MemoryRequest.of("GET", "/bench/item");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        service.shutdown();
+        service.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void blockingBatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; ++i) {
+            dispatcher.execute(() -> {
+                try {
+                    server.handle(server.newExchange(request, true));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+    }
+
+    public static final class BlockingController {
+        private final long blockMillis;
+
+        public BlockingController(long blockMillis) {
+            this.blockMillis = blockMillis;
+        }
+
+        @Get("/item")
+        public HttpResponse item(HttpRequest request) throws InterruptedException {
+            Thread.sleep(blockMillis);
+            return Responses.ok("item");
+        }
+    }
+}
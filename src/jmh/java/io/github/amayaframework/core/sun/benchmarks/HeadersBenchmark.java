@@ -0,0 +1,44 @@
+package io.github.amayaframework.core.sun.benchmarks;
+
+import io.github.amayaframework.core.config.AmayaConfig;
+import io.github.amayaframework.core.contexts.HttpResponse;
+import io.github.amayaframework.core.contexts.Responses;
+import io.github.amayaframework.core.sun.actions.ProcessHeadersAction;
+import io.github.amayaframework.core.sun.actions.SunResponseData;
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the filling of the response headers by {@link ProcessHeadersAction}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeadersBenchmark {
+    private MemoryExchange exchange;
+    private HttpResponse response;
+    private ProcessHeadersAction action;
+
+    @Setup
+    public void setUp() {
+        exchange = new MemoryExchange(MemoryRequest.of("GET", "/bench"), true);
+        response = Responses.ok("body");
+        action = new ProcessHeadersAction(new AmayaConfig());
+    }
+
+    @Benchmark
+    public Object processHeaders() throws Throwable {
+        exchange.reset();
+        action.execute(new SunResponseData(exchange, response));
+        return exchange.getResponseHeaders();
+    }
+}
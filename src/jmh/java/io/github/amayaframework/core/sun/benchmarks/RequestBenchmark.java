@@ -0,0 +1,79 @@
+package io.github.amayaframework.core.sun.benchmarks;
+
+import io.github.amayaframework.core.methods.HttpMethod;
+import io.github.amayaframework.core.pipeline.RouteData;
+import io.github.amayaframework.core.sun.actions.ParseRequestAction;
+import io.github.amayaframework.core.sun.actions.ParseRequestCookiesAction;
+import io.github.amayaframework.core.sun.actions.SunRequestData;
+import io.github.amayaframework.core.sun.contexts.SunHttpRequest;
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the input side of the sun adapter: request data, request parsing and cookie parsing.
+ * Path parameters are supplied in advance, as the route cache does, so only the work of the actions is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestBenchmark {
+    private MemoryExchange exchange;
+    private RouteData route;
+    private ParseRequestAction parseAction;
+    private ParseRequestCookiesAction cookiesAction;
+
+    @Setup
+    public void setUp() {
+        exchange = new MemoryExchange(MemoryRequest.parse(
+                "GET /bench/items?page=2&size=50 HTTP/1.1\r\n" +
+                        "Content-Type: application/json; charset=UTF-8\r\n" +
+                        "Cookie: session=5f1c2a9e; theme=dark; lang=en\r\n" +
+                        "\r\n"
+        ));
+        route = new RouteData(HttpMethod.GET, "/items", null);
+        parseAction = new ParseRequestAction();
+        cookiesAction = new ParseRequestCookiesAction();
+    }
+
+    private SunRequestData newData() {
+        SunRequestData ret = new SunRequestData(exchange, route, StandardCharsets.UTF_8);
+        ret.setParameters(Collections.emptyMap());
+        return ret;
+    }
+
+    @Benchmark
+    public Charset charset() {
+        return newData().getCharset();
+    }
+
+    @Benchmark
+    public String contentType() {
+        return newData().getContentType();
+    }
+
+    @Benchmark
+    public SunRequestData parseRequest() throws Throwable {
+        return parseAction.execute(newData());
+    }
+
+    @Benchmark
+    public Object parseCookies() throws Throwable {
+        SunRequestData data = newData();
+        SunHttpRequest request = new SunHttpRequest();
+        request.setHeaders(exchange.getRequestHeaders());
+        data.setRequest(request);
+        return cookiesAction.execute(data).getRequest().getCookie("session");
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.amayaframework.core.sun.benchmarks;
+
+import io.github.amayaframework.core.contexts.HttpRequest;
+import io.github.amayaframework.core.contexts.HttpResponse;
+import io.github.amayaframework.core.contexts.Responses;
+import io.github.amayaframework.core.methods.Get;
+import io.github.amayaframework.core.sun.SunBuilder;
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import io.github.amayaframework.core.sun.memory.MemoryServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full processing of an exchange by an in-memory application: context choice,
+ * input pipeline, controller call, output pipeline and sending of the response. Run with the gc profiler to compare the allocation rate
+ * of pooled and non-pooled sessions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoundTripBenchmark {
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    @Param({"0", "1024"})
+    public int routeCacheSize;
+
+    private MemoryServer server;
+    private MemoryExchange exchange;
+
+    @Setup
+    public void setUp() throws Throwable {
+        server = (MemoryServer) new SunBuilder()
+                .inMemory()
+                .pooling(pooled)
+                .routeCacheSize(routeCacheSize)
+                .addController("/bench", new BenchController())
+                .build()
+                .getServer();
+        exchange = server.newExchange(MemoryRequest.of("GET", "/bench/item?id=1"), true);
+    }
+
+    @Benchmark
+    public long handle() throws IOException {
+        exchange.reset();
+        server.handle(exchange);
+        return exchange.getSink().size();
+    }
+
+    public static final class BenchController {
+        @Get("/item")
+        public HttpResponse item(HttpRequest request) {
+            return Responses.ok("item");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.amayaframework.core.sun.benchmarks;
+
+import io.github.amayaframework.core.sun.handlers.SunSession;
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import io.github.amayaframework.http.HttpCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the encoding and sending of string bodies of different sizes and charsets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SendBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"UTF-8", "UTF-16", "ISO-8859-1"})
+    public String charsetName;
+
+    private MemoryExchange exchange;
+    private Charset charset;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        exchange = new MemoryExchange(MemoryRequest.of("GET", "/bench"), true);
+        charset = Charset.forName(charsetName);
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; ++i) {
+            builder.append((char) ('a' + i % 26));
+        }
+        body = builder.toString();
+    }
+
+    @Benchmark
+    public long send() throws IOException {
+        exchange.reset();
+        SunSession.send(exchange, charset, HttpCode.OK, body);
+        return exchange.getSink().size();
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.amayaframework.core.sun.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>An open-loop load generator: requests are scheduled at a constant rate, regardless of how fast
+ * the server answers.</p>
+ * <p>Each connection takes the next free slot of the schedule, waits for its intended start time and sends
+ * the request. The latency is measured from the intended start time, not from the actual sending, so the
+ * time requests spend waiting for a busy connection is counted and coordinated omission is avoided.</p>
+ */
+final class LoadGenerator {
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    private final InetSocketAddress address;
+    private final byte[] request;
+    private final int connections;
+    private final long interval;
+    private final boolean keepAlive;
+    private final AtomicLong slots;
+    private final AtomicLong errors;
+    private final Recorder recorder;
+    private volatile long start;
+    private volatile long end;
+
+    LoadGenerator(InetSocketAddress address, String path, int connections, double rate, boolean keepAlive) {
+        this.address = address;
+        this.request = ("GET " + path + " HTTP/1.1\r\n" +
+                "Host: " + address.getHostString() + ":" + address.getPort() + "\r\n" +
+                (keepAlive ? "" : "Connection: close\r\n") +
+                "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        this.connections = connections;
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        this.keepAlive = keepAlive;
+        this.slots = new AtomicLong();
+        this.errors = new AtomicLong();
+        this.recorder = new Recorder(MAX_LATENCY, 3);
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int b;
+        while ((b = input.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException();
+            }
+            if (b != '\r') {
+                builder.append((char) b);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void skip(InputStream input, long length) throws IOException {
+        while (length > 0) {
+            long skipped = input.skip(length);
+            if (skipped <= 0) {
+                if (input.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Reads the response and returns true if the connection can be reused.
+     */
+    private static boolean readResponse(InputStream input) throws IOException {
+        String status = readLine(input);
+        if (!status.startsWith("HTTP/1.") || status.length() < 12) {
+            throw new IOException("Malformed status line: " + status);
+        }
+        long length = -1;
+        boolean chunked = false;
+        boolean close = status.startsWith("HTTP/1.0");
+        String line;
+        while (!(line = readLine(input)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            switch (name) {
+                case "content-length":
+                    length = Long.parseLong(value);
+                    break;
+                case "transfer-encoding":
+                    chunked = value.equalsIgnoreCase("chunked");
+                    break;
+                case "connection":
+                    close = value.equalsIgnoreCase("close");
+                    break;
+            }
+        }
+        if (chunked) {
+            long size;
+            while ((size = Long.parseLong(readLine(input).split(";")[0].trim(), 16)) > 0) {
+                skip(input, size + 2);
+            }
+            while (!readLine(input).isEmpty()) {
+                // Skip trailers
+            }
+            return !close;
+        }
+        if (length >= 0) {
+            skip(input, length);
+            return !close;
+        }
+        while (input.read() >= 0) {
+            // The body ends with the connection
+        }
+        return false;
+    }
+
+    private static void waitUntil(long time) {
+        long delay;
+        while ((delay = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket ret = new Socket();
+        ret.setTcpNoDelay(true);
+        ret.connect(address);
+        return ret;
+    }
+
+    private void work() {
+        Socket socket = null;
+        InputStream input = null;
+        long slot;
+        while ((slot = slots.getAndIncrement()) >= 0) {
+            long intended = start + slot * interval;
+            if (intended - end >= 0) {
+                break;
+            }
+            waitUntil(intended);
+            try {
+                if (socket == null) {
+                    socket = connect();
+                    input = new BufferedInputStream(socket.getInputStream());
+                }
+                OutputStream output = socket.getOutputStream();
+                output.write(request);
+                output.flush();
+                boolean reuse = readResponse(input);
+                recorder.recordValue(Math.min(System.nanoTime() - intended, MAX_LATENCY));
+                if (!reuse || !keepAlive) {
+                    close(socket);
+                    socket = null;
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                close(socket);
+                socket = null;
+            }
+        }
+        close(socket);
+    }
+
+    private static void close(Socket socket) {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Generates the load for the specified time and returns the latency histogram in nanoseconds.
+     *
+     * @param duration duration in nanoseconds
+     * @return {@link Histogram} instance
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    Histogram run(long duration) throws InterruptedException {
+        slots.set(0);
+        errors.set(0);
+        recorder.reset();
+        start = System.nanoTime();
+        end = start + duration;
+        List<Thread> threads = new ArrayList<>(connections);
+        for (int i = 0; i < connections; ++i) {
+            Thread thread = new Thread(this::work, "load-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return recorder.getIntervalHistogram();
+    }
+
+    long getErrors() {
+        return errors.get();
+    }
+}
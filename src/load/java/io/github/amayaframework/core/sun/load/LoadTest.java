@@ -0,0 +1,142 @@
+package io.github.amayaframework.core.sun.load;
+
+import io.github.amayaframework.core.Amaya;
+import io.github.amayaframework.core.sun.SunBuilder;
+import io.github.amayaframework.server.interfaces.HttpServer;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Starts the sample application on loopback and measures it with {@link LoadGenerator}.</p>
+ * <p>Accepts arguments in the key=value form:</p>
+ * <ul>
+ *     <li>executor - default, fixed, cached or virtual</li>
+ *     <li>threads - number of threads of the fixed executor</li>
+ *     <li>acceptors - number of servers listening with SO_REUSEPORT</li>
+ *     <li>connections - number of client connections</li>
+ *     <li>rate - requests per second</li>
+ *     <li>keepAlive - true, if connections must be reused</li>
+ *     <li>warmup, duration - time in seconds</li>
+ *     <li>output - directory of the reports</li>
+ * </ul>
+ * <p>Each run writes a report named after the executor, rate and connections,
+ * so the reports of different configurations can be compared side by side.</p>
+ */
+public final class LoadTest {
+    private static final String PATH = "/sample/hello";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private LoadTest() {
+    }
+
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> ret = new HashMap<>();
+        ret.put("executor", "default");
+        ret.put("threads", Integer.toString(Runtime.getRuntime().availableProcessors() * 2));
+        ret.put("acceptors", "1");
+        ret.put("connections", "64");
+        ret.put("rate", "10000");
+        ret.put("keepAlive", "true");
+        ret.put("warmup", "10");
+        ret.put("duration", "30");
+        ret.put("output", "build/reports/load");
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index < 0) {
+                throw new IllegalArgumentException("Argument must be in the key=value form: " + arg);
+            }
+            String key = arg.substring(0, index);
+            if (!ret.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown argument: " + key);
+            }
+            ret.put(key, arg.substring(index + 1));
+        }
+        return ret;
+    }
+
+    private static SunBuilder configureExecutor(SunBuilder builder, String executor, int threads) {
+        switch (executor) {
+            case "default":
+                return builder;
+            case "fixed":
+                return builder.executor(Executors.newFixedThreadPool(threads));
+            case "cached":
+                return builder.executor(Executors.newCachedThreadPool());
+            case "virtual":
+                return builder.useVirtualThreads();
+            default:
+                throw new IllegalArgumentException("Unknown executor: " + executor);
+        }
+    }
+
+    private static void report(PrintStream stream, String header, Histogram histogram, long errors, long duration) {
+        stream.println(header);
+        long count = histogram.getTotalCount();
+        stream.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                count,
+                errors,
+                count / (double) duration);
+        stream.printf("p50=%.3f ms p99=%.3f ms p99.9=%.3f ms max=%.3f ms%n",
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+        stream.println();
+        histogram.outputPercentileDistribution(stream, NANOS_PER_MILLI);
+    }
+
+    public static void main(String[] args) throws Throwable {
+        Map<String, String> arguments = parseArguments(args);
+        String executor = arguments.get("executor");
+        int threads = Integer.parseInt(arguments.get("threads"));
+        int acceptors = Integer.parseInt(arguments.get("acceptors"));
+        int connections = Integer.parseInt(arguments.get("connections"));
+        double rate = Double.parseDouble(arguments.get("rate"));
+        boolean keepAlive = Boolean.parseBoolean(arguments.get("keepAlive"));
+        long warmup = Long.parseLong(arguments.get("warmup"));
+        long duration = Long.parseLong(arguments.get("duration"));
+        SunBuilder builder = new SunBuilder()
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .acceptors(acceptors)
+                .addController("/sample", new SampleController());
+        Amaya<HttpServer> amaya = configureExecutor(builder, executor, threads).build();
+        amaya.start();
+        try {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), amaya.getPort());
+            LoadGenerator generator = new LoadGenerator(address, PATH, connections, rate, keepAlive);
+            generator.run(TimeUnit.SECONDS.toNanos(warmup));
+            Histogram histogram = generator.run(TimeUnit.SECONDS.toNanos(duration));
+            String header = String.format(
+                    "executor=%s threads=%d acceptors=%d connections=%d rate=%.0f/s keepAlive=%b duration=%ds",
+                    executor, threads, acceptors, connections, rate, keepAlive, duration
+            );
+            report(System.out, header, histogram, generator.getErrors(), duration);
+            File directory = new File(arguments.get("output"));
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create directory " + directory);
+            }
+            String name = String.format("%s-%d-%.0f-%d.txt", executor, acceptors, rate, connections);
+            try (PrintStream stream = new PrintStream(new FileOutputStream(new File(directory, name)), true, "UTF-8")) {
+                report(stream, header, histogram, generator.getErrors(), duration);
+            }
+        } finally {
+            amaya.close();
+            Executor service = amaya.getServer().getExecutor();
+            if (service instanceof ExecutorService) {
+                ((ExecutorService) service).shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.amayaframework.core.sun.load;
+
+import io.github.amayaframework.core.contexts.HttpRequest;
+import io.github.amayaframework.core.contexts.HttpResponse;
+import io.github.amayaframework.core.contexts.Responses;
+import io.github.amayaframework.core.methods.Get;
+
+/**
+ * The controller of the sample application under load.
+ */
+public final class SampleController {
+    @Get("/hello")
+    public HttpResponse hello(HttpRequest request) {
+        return Responses.ok("Hello, world!");
+    }
+}
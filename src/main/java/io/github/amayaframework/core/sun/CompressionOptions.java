@@ -0,0 +1,97 @@
+package io.github.amayaframework.core.sun;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * <p>Settings of the response compression.</p>
+ * <p>By default, all string content types are compressed, starting from 1024 bytes,
+ * with the default compression level.</p>
+ */
+public class CompressionOptions {
+    private final Set<String> types;
+    private int minSize;
+    private int level;
+    private int poolSize;
+
+    public CompressionOptions() {
+        this.types = new HashSet<>();
+        this.minSize = 1024;
+        this.level = Deflater.DEFAULT_COMPRESSION;
+        this.poolSize = Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * Sets the minimum size of a response body, starting from which it is compressed.
+     * It does not affect streaming responses of unknown length, which are always compressed.
+     *
+     * @param minSize size in bytes, must be non-negative
+     * @return {@link CompressionOptions} instance
+     */
+    public CompressionOptions minSize(int minSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Minimum size must be non-negative");
+        }
+        this.minSize = minSize;
+        return this;
+    }
+
+    /**
+     * Sets the compression level.
+     *
+     * @param level level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return {@link CompressionOptions} instance
+     */
+    public CompressionOptions level(int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level");
+        }
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of idle deflaters kept for each content coding.
+     *
+     * @param poolSize number of deflaters, must be positive
+     * @return {@link CompressionOptions} instance
+     */
+    public CompressionOptions poolSize(int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    /**
+     * Adds the media type (for example, "application/json") to the list of compressed ones.
+     * If the list is empty, all string content types are compressed.
+     *
+     * @param type media type, must be not null
+     * @return {@link CompressionOptions} instance
+     */
+    public CompressionOptions addType(String type) {
+        types.add(Objects.requireNonNull(type).toLowerCase());
+        return this;
+    }
+
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(types);
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+}
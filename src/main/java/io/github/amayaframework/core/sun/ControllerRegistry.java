@@ -0,0 +1,32 @@
+package io.github.amayaframework.core.sun;
+
+import java.util.Map;
+
+/**
+ * <p>A manual registration API for controllers known in advance, which replaces the scanning
+ * of the class index at startup.</p>
+ * <p>No generator is provided: the implementation is written by hand and instantiates the controllers directly,
+ * so no classes are searched or loaded by name when the server is built. The implementation must be kept
+ * in sync with the controllers, as a controller missing from it is not found. For example:</p>
+ * <pre>{@code
+ * public final class AppControllers implements ControllerRegistry {
+ *     public Map<String, Object> getControllers() {
+ *         Map<String, Object> ret = new HashMap<>();
+ *         ret.put("/users", new UserController());
+ *         ret.put("/orders", new OrderController());
+ *         return ret;
+ *     }
+ * }
+ * }</pre>
+ * <p>The registry is added with {@link SunBuilder#registry(ControllerRegistry)}, or listed in
+ * {@code META-INF/services/io.github.amayaframework.core.sun.ControllerRegistry} to be found
+ * by {@link SunBuilder#fastStartup()}.</p>
+ */
+public interface ControllerRegistry {
+    /**
+     * Returns the controllers to be added to the server.
+     *
+     * @return map of controller routes and objects to be packed into controllers
+     */
+    Map<String, Object> getControllers();
+}
@@ -2,19 +2,47 @@ package io.github.amayaframework.core.sun;
 
 import io.github.amayaframework.core.AbstractAmaya;
 import io.github.amayaframework.core.handlers.EventManager;
+import io.github.amayaframework.core.sun.handlers.DrainTracker;
 import io.github.amayaframework.server.interfaces.HttpServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class SunAmaya extends AbstractAmaya<HttpServer> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SunAmaya.class);
+    private final List<HttpServer> servers;
     private final HttpServer server;
+    private final long buildStart;
+    private DrainTracker drainTracker;
+    private long drainTimeout;
 
-    protected SunAmaya(EventManager manager, HttpServer server) {
+    /**
+     * Creates the amaya server.
+     *
+     * @param manager    event manager
+     * @param servers    servers listening on the address, at least one
+     * @param buildStart value of {@link System#nanoTime()} when the build began, used to log the startup time
+     */
+    protected SunAmaya(EventManager manager, List<HttpServer> servers, long buildStart) {
         super(manager);
-        this.server = server;
+        if (servers.isEmpty()) {
+            throw new IllegalArgumentException("At least one server is required");
+        }
+        this.servers = Collections.unmodifiableList(servers);
+        this.server = servers.get(0);
+        this.buildStart = buildStart;
+    }
+
+    protected SunAmaya(EventManager manager, List<HttpServer> servers) {
+        this(manager, servers, System.nanoTime());
+    }
+
+    protected SunAmaya(EventManager manager, HttpServer server) {
+        this(manager, Collections.singletonList(server));
     }
 
     private static void printHelloMessage() throws IOException {
@@ -33,21 +61,90 @@ public class SunAmaya extends AbstractAmaya<HttpServer> {
         return server.getAddress().getPort();
     }
 
+    /**
+     * Returns the first of the servers listening on the address.
+     *
+     * @return {@link HttpServer} instance
+     */
     @Override
     public HttpServer getServer() {
         return server;
     }
 
+    /**
+     * Returns all servers listening on the address. There is more than one server,
+     * if the acceptors are enabled in {@link SunBuilder}.
+     *
+     * @return unmodifiable list of servers
+     */
+    public List<HttpServer> getServers() {
+        return servers;
+    }
+
+    void setDrain(DrainTracker drainTracker, long drainTimeout) {
+        this.drainTracker = drainTracker;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Returns the counter of exchanges in flight, which shows the progress of the drain when the server is closed.
+     *
+     * @return {@link DrainTracker} instance or null, if the server is stopped without draining
+     */
+    public DrainTracker getDrainTracker() {
+        return drainTracker;
+    }
+
+    /**
+     * Stops all servers at once: each of them closes its listener immediately and waits for its exchanges
+     * within the same delay, while every response closes its connection. Returns when the exchanges
+     * counted by the tracker are completed and all servers are stopped.
+     */
+    private void drain() throws InterruptedException {
+        drainTracker.startDrain();
+        LOGGER.info("Draining " + drainTracker.getInFlight() + " exchanges in flight");
+        // The delay of HttpServer.stop is in seconds, rounding down would cut off the exchanges before the deadline
+        int delay = (int) Math.min(Integer.MAX_VALUE, (drainTimeout + 999) / 1000);
+        List<Thread> stoppers = new ArrayList<>(servers.size());
+        for (HttpServer server : servers) {
+            Thread stopper = new Thread(() -> server.stop(delay), "amaya-stop-" + stoppers.size());
+            stopper.start();
+            stoppers.add(stopper);
+        }
+        if (!drainTracker.awaitIdle(drainTimeout)) {
+            LOGGER.warn("Drain deadline exceeded, " + drainTracker.getInFlight() + " exchanges are cut off");
+        }
+        for (Thread stopper : stoppers) {
+            stopper.join();
+        }
+    }
+
     @Override
     public void start() throws Throwable {
-        server.start();
+        for (HttpServer server : servers) {
+            server.start();
+        }
+        LOGGER.info("Amaya is ready to accept requests in " + (System.nanoTime() - buildStart) / 1_000_000 +
+                " ms since the build began");
         printHelloMessage();
         super.start();
     }
 
     @Override
     public void close() throws Exception {
-        server.stop(0);
+        if (drainTracker == null) {
+            for (HttpServer server : servers) {
+                server.stop(0);
+            }
+        } else {
+            try {
+                drain();
+            } catch (InterruptedException e) {
+                // The servers finish stopping on their own within the delay
+                LOGGER.warn("Drain has been interrupted");
+                Thread.currentThread().interrupt();
+            }
+        }
         LOGGER.info("Amaya server stopped");
         super.close();
     }
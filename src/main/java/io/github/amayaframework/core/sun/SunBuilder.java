@@ -5,30 +5,81 @@ import io.github.amayaframework.core.Amaya;
 import io.github.amayaframework.core.AmayaBuilder;
 import io.github.amayaframework.core.config.AmayaConfig;
 import io.github.amayaframework.core.configurators.Configurator;
+import io.github.amayaframework.core.controllers.Controller;
 import io.github.amayaframework.core.handlers.EventManager;
 import io.github.amayaframework.core.handlers.PipelineHandler;
+import io.github.amayaframework.core.sun.actions.CacheResponseAction;
+import io.github.amayaframework.core.sun.actions.CompressResponseAction;
+import io.github.amayaframework.core.sun.actions.ServeCachedAction;
+import io.github.amayaframework.core.sun.handlers.AdmissionExecutor;
+import io.github.amayaframework.core.sun.handlers.Bulkhead;
+import io.github.amayaframework.core.sun.handlers.ConcurrencyLimiter;
+import io.github.amayaframework.core.sun.handlers.DrainTracker;
+import io.github.amayaframework.core.sun.handlers.RateLimiter;
+import io.github.amayaframework.core.sun.handlers.ResponseCache;
+import io.github.amayaframework.core.sun.handlers.RootHandler;
+import io.github.amayaframework.core.sun.handlers.StaticHandler;
 import io.github.amayaframework.core.sun.handlers.SunHandler;
+import io.github.amayaframework.core.sun.memory.MemoryServer;
+import io.github.amayaframework.core.sun.metrics.MetricsHandler;
+import io.github.amayaframework.core.sun.metrics.MetricsRegistry;
+import io.github.amayaframework.core.sun.metrics.SunMetrics;
+import io.github.amayaframework.core.sun.util.ReusePort;
+import io.github.amayaframework.core.sun.util.VirtualThreads;
+import io.github.amayaframework.core.util.ParseUtil;
 import io.github.amayaframework.server.Servers;
+import io.github.amayaframework.server.interfaces.HttpHandler;
 import io.github.amayaframework.server.interfaces.HttpServer;
 import io.github.amayaframework.server.interfaces.HttpsServer;
 import io.github.amayaframework.server.utils.HttpsConfigurator;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * A builder that helps to instantiate a properly configured Amaya Server.
+ * <p>A builder that helps to instantiate a properly configured Amaya Server.</p>
+ * <p>Whether a response is deferred is decided by the controller, not by {@link AmayaConfig#useAsync()}:
+ * a response whose body is a {@link java.util.concurrent.CompletionStage} is sent when the stage completes,
+ * without holding the handler thread, in both modes. The limit of the waiting is set with
+ * {@link #deferredTimeout(long)}.</p>
  */
 public class SunBuilder extends AmayaBuilder<HttpServer> {
     private static final String PREFIX = "io.github.amayaframework.core.sun.actions";
+    private static final long DEFAULT_REFRESH_INTERVAL = 1000;
+    private static final int DEFAULT_RESPONSE_CACHE_SIZE = 1024;
     private InetSocketAddress address;
     private HttpsConfigurator configurator;
     private int backlog;
+    private SunOptions options;
+    private CompressionOptions compression;
+    private Map<String, StaticHandler> resources;
+    private boolean singleContext;
+    private boolean inMemory;
+    private int acceptors;
+    private String metricsPath;
+    private MetricsRegistry metricsRegistry;
+    private Map<String, Long> cacheRules;
+    private List<String> cacheIdentityHeaders;
+    private int responseCacheSize;
+    private List<ControllerRegistry> registries;
+    private boolean parallelConfiguration;
+    private long drainTimeout;
 
     public SunBuilder(AmayaConfig config) {
         super(config, PREFIX);
@@ -42,6 +93,20 @@ public class SunBuilder extends AmayaBuilder<HttpServer> {
         address = new InetSocketAddress(8000);
         configurator = null;
         backlog = 0;
+        options = new SunOptions();
+        compression = null;
+        resources = new HashMap<>();
+        singleContext = false;
+        inMemory = false;
+        acceptors = 1;
+        metricsPath = null;
+        metricsRegistry = null;
+        cacheRules = new HashMap<>();
+        cacheIdentityHeaders = new ArrayList<>();
+        responseCacheSize = DEFAULT_RESPONSE_CACHE_SIZE;
+        registries = new ArrayList<>();
+        parallelConfiguration = false;
+        drainTimeout = -1;
         super.resetValues();
     }
 
@@ -102,6 +167,37 @@ public class SunBuilder extends AmayaBuilder<HttpServer> {
         return (SunBuilder) super.executor(executor);
     }
 
+    /**
+     * Makes each http transaction be processed in its own virtual thread, if the runtime supports them
+     * (Java 21+, or Java 19 and 20 with {@code --enable-preview}). Otherwise, a warning is logged
+     * and the current executor is kept.
+     * Blocking inside synchronized blocks pins the carrier thread, so such code in controllers should
+     * be replaced with {@link java.util.concurrent.locks.Lock}s. Pinning can be traced with
+     * the {@code -Djdk.tracePinnedThreads=short} option.
+     *
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder useVirtualThreads() {
+        if (!VirtualThreads.isSupported()) {
+            logger.warn("Virtual threads are not supported by the current runtime, the executor is not changed");
+            return this;
+        }
+        ExecutorService service;
+        try {
+            service = VirtualThreads.newExecutor();
+        } catch (UnsupportedOperationException e) {
+            // Java 19 and 20 provide the API, but refuse to use it without --enable-preview
+            logger.warn("Virtual threads are not enabled in the current runtime, the executor is not changed");
+            return this;
+        }
+        executor(service);
+        if (config.isDebug() && !VirtualThreads.isPinningTraced()) {
+            logger.debug("Use virtual threads, pinning can be traced with -D" +
+                    VirtualThreads.TRACE_PINNED_PROPERTY + "=short");
+        }
+        return this;
+    }
+
     /**
      * Adds the configurator to the end of the current list of configurators.
      *
@@ -152,6 +248,368 @@ public class SunBuilder extends AmayaBuilder<HttpServer> {
         return this;
     }
 
+    /**
+     * Sets the size of the buffer used by streaming responses whose length is not specified.
+     * Such responses are sent using chunked transfer encoding, and the accumulated data is handed
+     * to the exchange each time the buffer is full or the stream is flushed. Larger writes are split,
+     * so the size also bounds the data handed to the exchange at once.
+     *
+     * @param chunkSize size in bytes, must be positive
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder chunkSize(int chunkSize) {
+        options.setChunkSize(Checks.requireCorrectValue(chunkSize, e -> e > 0));
+        return this;
+    }
+
+    /**
+     * Enables the compression of responses with the specified settings.
+     * The coding is chosen according to the Accept-Encoding request header, both fixed-length
+     * and streaming responses are compressed.
+     *
+     * @param compression {@link CompressionOptions} settings to be used. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder compression(CompressionOptions compression) {
+        this.compression = Objects.requireNonNull(compression);
+        return this;
+    }
+
+    /**
+     * Enables the compression of responses with the default settings.
+     *
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder compression() {
+        return compression(new CompressionOptions());
+    }
+
+    /**
+     * Adds the directory, files from which will be served at the specified route.
+     * Supports conditional and range requests, file metadata is cached for the specified interval.
+     *
+     * @param route           route of the files
+     * @param root            directory containing files. Must be not null.
+     * @param refreshInterval time in milliseconds during which the file metadata is considered actual
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder addResources(String route, Path root, long refreshInterval) {
+        Objects.requireNonNull(root);
+        Checks.requireCorrectValue(refreshInterval, e -> e >= 0);
+        String path = ParseUtil.normalizeRoute(Objects.requireNonNull(route));
+        resources.put(path, new StaticHandler(path, root, refreshInterval));
+        return this;
+    }
+
+    /**
+     * Adds the directory, files from which will be served at the specified route.
+     * File metadata is cached for 1 second.
+     *
+     * @param route route of the files
+     * @param root  directory containing files. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder addResources(String route, Path root) {
+        return addResources(route, root, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * Makes the server have a single root context, which chooses the handler of controller or resources
+     * using a prefix tree. The choice follows the same longest prefix rule as the server contexts,
+     * but its cost does not depend on the number of controllers.
+     *
+     * @param singleContext true, if the single root context must be used
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder singleContext(boolean singleContext) {
+        this.singleContext = singleContext;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of resolved routes cached by each controller for each request method.
+     * Repeated requests to a cached path skip route search and path parameter extraction.
+     *
+     * @param size cache size, 0 disables the cache
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder routeCacheSize(int size) {
+        options.setRouteCacheSize(Checks.requireCorrectValue(size, e -> e >= 0));
+        return this;
+    }
+
+    /**
+     * Caches the successful responses to GET requests to the specified route and all routes starting with it.
+     * Cached responses are sent as ready bytes without calling the controller, carry a strong ETag computed
+     * from the body, and conditional requests matching the tag are answered with 304.
+     * Responses with cookies, streaming bodies or no-store and private Cache-Control are never cached.
+     * Requests with Authorization, Cookie or one of the {@link #cacheIdentityHeader(String) identity headers}
+     * bypass the cache, as their responses may be personal. Cached responses are sent without compression. The rule of the longest matching route is applied.
+     *
+     * @param route route to be cached
+     * @param ttl   time in milliseconds during which the cached response is sent, 0 to exclude the route
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder cache(String route, long ttl) {
+        Checks.requireCorrectValue(ttl, e -> e >= 0);
+        cacheRules.put(ParseUtil.normalizeRoute(Objects.requireNonNull(route)), ttl);
+        return this;
+    }
+
+    /**
+     * Adds the request header identifying the client, such as an API key header. Like Authorization
+     * and Cookie, requests with the header are neither served from the response cache nor stored in it.
+     *
+     * @param name header name
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder cacheIdentityHeader(String name) {
+        cacheIdentityHeaders.add(Objects.requireNonNull(name));
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of responses kept by the response cache.
+     *
+     * @param size cache size, must be positive
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder responseCacheSize(int size) {
+        this.responseCacheSize = Checks.requireCorrectValue(size, e -> e > 0);
+        return this;
+    }
+
+    /**
+     * Makes each thread processing exchanges reuse one session per controller instead of creating
+     * a new one for each exchange. The session is reset between exchanges and fails on any use after
+     * being released. Has no effect with virtual threads, as each of them handles a single exchange.
+     *
+     * @param pooled true, if sessions must be reused
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder pooling(boolean pooled) {
+        options.setPooled(pooled);
+        return this;
+    }
+
+    /**
+     * Sets the adaptive limiter of concurrently processed requests, shared by all controllers.
+     * Requests are admitted when the server hands them to the executor, so the latency the limit adapts to
+     * includes the time spent in the executor queue, and requests exceeding the limit are answered with 503
+     * and Retry-After at once in the dispatching thread, without entering the executor queue or the pipeline.
+     * The limiter can be used later to obtain the current limit and the number of rejected requests.
+     *
+     * @param limiter {@link ConcurrencyLimiter} limiter to be used. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder concurrencyLimiter(ConcurrencyLimiter limiter) {
+        options.setLimiter(Objects.requireNonNull(limiter));
+        return this;
+    }
+
+    /**
+     * Sets the per-client limiter of the request rate, shared by all controllers. The rate is checked
+     * before routing, and requests exceeding it are answered with 429 and Retry-After.
+     *
+     * @param limiter {@link RateLimiter} limiter to be used. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder rateLimiter(RateLimiter limiter) {
+        options.setRateLimiter(Objects.requireNonNull(limiter));
+        return this;
+    }
+
+    /**
+     * Isolates the controller with the specified route in the bulkhead: its exchanges are handed over by
+     * the server thread to the threads of the bulkhead, so a slow controller cannot occupy the threads
+     * of the other ones. The same bulkhead can be set for several controllers to form a group sharing
+     * its threads and queue. When the bulkhead is full, exchanges are handled according to its policy.
+     * If the built-in metrics registry is used, the queue depth and saturation of the bulkhead are exported,
+     * so different bulkheads must have different names. The build fails if no controller has the route.
+     * The bulkhead must be shut down by the application after the server is closed.
+     *
+     * @param route    route of the controller
+     * @param bulkhead {@link Bulkhead} bulkhead to be used. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder bulkhead(String route, Bulkhead bulkhead) {
+        String path = ParseUtil.normalizeRoute(Objects.requireNonNull(route));
+        options.addBulkhead(path, Objects.requireNonNull(bulkhead));
+        return this;
+    }
+
+    /**
+     * Sets the number of servers listening on the same address with the SO_REUSEPORT option, each with its
+     * own acceptor and dispatcher thread. The kernel distributes connections between them, so accepting and
+     * dispatching scale across cores. All servers share the same handlers and executor.
+     * If the option is not supported (it requires Java 9+ and OS support), a warning is logged
+     * and a single server is created.
+     *
+     * @param acceptors number of servers, must be positive
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder acceptors(int acceptors) {
+        this.acceptors = Checks.requireCorrectValue(acceptors, e -> e > 0);
+        return this;
+    }
+
+    /**
+     * Makes the server drain on close: all servers are stopped at once with {@link HttpServer#stop(int)},
+     * which closes the listeners immediately and waits for the exchanges in flight, while further responses
+     * are sent with Connection: close. The close returns when the exchanges are completed or the timeout,
+     * rounded up to whole seconds, elapses for all servers together. Exchanges are counted from the moment
+     * the server hands them to the executor, whichever handler processes them. The progress of the drain
+     * can be obtained with {@link SunAmaya#getDrainTracker()}.
+     *
+     * @param timeout maximum time to wait for the exchanges in milliseconds
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder drainTimeout(long timeout) {
+        this.drainTimeout = Checks.requireCorrectValue(timeout, e -> e >= 0);
+        return this;
+    }
+
+    /**
+     * Sets the maximum time to wait for a deferred response, whose body is a
+     * {@link java.util.concurrent.CompletionStage}. When it elapses, the exchange is answered with 503,
+     * closed and released from the concurrency limiter and the drain, and the later result of the stage
+     * is ignored. The stage itself is not cancelled.
+     *
+     * @param timeout time in milliseconds, -1 to remove the limit
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder deferredTimeout(long timeout) {
+        options.setDeferredTimeout(Checks.requireCorrectValue(timeout, e -> e >= -1));
+        return this;
+    }
+
+    /**
+     * Sets the maximum size of the request body. Requests declaring a larger Content-Length are answered
+     * with 413 before reaching the pipeline, other requests fail with 413 as soon as the excess is read.
+     *
+     * @param size size in bytes, -1 to remove the limit
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder maxBodySize(long size) {
+        options.setMaxBodySize(Checks.requireCorrectValue(size, e -> e >= -1));
+        return this;
+    }
+
+    /**
+     * Sets how the parts of multipart/form-data bodies are stored: parts larger than the threshold are
+     * moved to temporary files in the specified directory, which are deleted when the exchange is completed.
+     *
+     * @param threshold size of the part content in bytes, above which the content is moved to a file
+     * @param directory directory of temporary files, or null to use the default one
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder multipart(int threshold, Path directory) {
+        options.setSpillThreshold(Checks.requireCorrectValue(threshold, e -> e >= 0));
+        options.setTempDirectory(directory);
+        return this;
+    }
+
+    /**
+     * Sets the limits of multipart/form-data bodies. Bodies with more parts are answered with 413.
+     * Once the parts kept in memory reach the memory limit, the following parts are moved to temporary files
+     * regardless of the threshold.
+     *
+     * @param maxParts  maximum number of parts in a body, must be positive
+     * @param maxMemory maximum total size of the part contents kept in memory in bytes
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder multipartLimits(int maxParts, long maxMemory) {
+        options.setMaxParts(Checks.requireCorrectValue(maxParts, e -> e > 0));
+        options.setMaxPartsMemory(Checks.requireCorrectValue(maxMemory, e -> e >= 0));
+        return this;
+    }
+
+    /**
+     * Enables the measurements of request processing: latency of routes, phases and sun actions,
+     * number of requests in flight, transferred bytes and rejected requests.
+     * When the measurements are disabled, no time is taken and nothing is allocated for them.
+     *
+     * @param metrics {@link SunMetrics} receiver of the measurements. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder metrics(SunMetrics metrics) {
+        options.setMetrics(Objects.requireNonNull(metrics));
+        metricsPath = null;
+        metricsRegistry = null;
+        return this;
+    }
+
+    /**
+     * Enables the measurements of request processing with the built-in registry and serves them
+     * at the specified route in the Prometheus text format.
+     *
+     * @param registry {@link MetricsRegistry} registry to be used. Must be not null.
+     * @param route    route of the metrics endpoint
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder metrics(MetricsRegistry registry, String route) {
+        metrics(registry);
+        metricsPath = ParseUtil.normalizeRoute(Objects.requireNonNull(route));
+        metricsRegistry = registry;
+        return this;
+    }
+
+    /**
+     * Adds the hand-written registry of controllers known in advance. If at least one registry is added,
+     * the class index is not scanned, and only the controllers of registries and the ones added
+     * manually are used.
+     *
+     * @param registry {@link ControllerRegistry} registry to be added. Must be not null.
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder registry(ControllerRegistry registry) {
+        registries.add(Objects.requireNonNull(registry));
+        return this;
+    }
+
+    /**
+     * Makes the pipelines of controllers be configured concurrently during the build.
+     * Configurators must not share mutable state to be used this way.
+     *
+     * @param parallel true, if the controllers must be configured concurrently
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder parallelConfiguration(boolean parallel) {
+        this.parallelConfiguration = parallel;
+        return this;
+    }
+
+    /**
+     * Reduces the time of building the server: the hand-written registries of controllers are loaded with
+     * {@link ServiceLoader} instead of scanning the class index. If no registry is found, a warning is logged
+     * and the class index is scanned as usual. Concurrent configuration of controllers is not implied,
+     * as it requires thread-safe configurators, and must be enabled with {@link #parallelConfiguration(boolean)}.
+     *
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder fastStartup() {
+        int count = registries.size();
+        for (ControllerRegistry registry : ServiceLoader.load(ControllerRegistry.class)) {
+            registries.add(registry);
+        }
+        if (registries.size() == count) {
+            logger.warn("No controller registry found, the class index will be scanned");
+        }
+        return this;
+    }
+
+    /**
+     * Makes the builder create a {@link MemoryServer} instead of a socket server.
+     * Exchanges are passed to such server directly, which allows to measure and test the application
+     * without network overhead. The server can be obtained with {@link Amaya#getServer()}.
+     *
+     * @return {@link SunBuilder} instance
+     */
+    public SunBuilder inMemory() {
+        this.inMemory = true;
+        return this;
+    }
+
     private HttpServer makeHttpsServer() throws IOException {
         HttpsServer ret = Servers.httpsServer(address, backlog);
         ret.setHttpsConfigurator(configurator);
@@ -161,34 +619,193 @@ public class SunBuilder extends AmayaBuilder<HttpServer> {
         return ret;
     }
 
+    /**
+     * Creates the server bound to the specified address. Can be overridden to supply
+     * a different server implementation.
+     *
+     * @return {@link HttpServer} instance
+     * @throws IOException in case of unsuccessful initialization of the server
+     */
+    protected HttpServer createServer() throws IOException {
+        if (inMemory) {
+            return new MemoryServer(address);
+        }
+        if (configurator != null) {
+            return makeHttpsServer();
+        }
+        return Servers.httpServer(address, backlog);
+    }
+
+    private HttpServer createListener(InetSocketAddress address) throws IOException {
+        HttpServer ret;
+        if (configurator != null) {
+            HttpsServer server = Servers.httpsServer();
+            server.setHttpsConfigurator(configurator);
+            ret = server;
+        } else {
+            ret = Servers.httpServer();
+        }
+        try {
+            ReusePort.enable(ret);
+            ret.bind(address, backlog);
+        } catch (IOException | RuntimeException e) {
+            ret.stop(0);
+            throw e;
+        }
+        return ret;
+    }
+
+    private List<HttpServer> createServers() throws IOException {
+        if (acceptors == 1 || inMemory) {
+            return Collections.singletonList(createServer());
+        }
+        if (!ReusePort.isSupported()) {
+            logger.warn("SO_REUSEPORT is not supported by the current runtime, a single server is created");
+            return Collections.singletonList(createServer());
+        }
+        List<HttpServer> ret = new ArrayList<>(acceptors);
+        InetSocketAddress bound = address;
+        try {
+            for (int i = 0; i < acceptors; ++i) {
+                HttpServer server = createListener(bound);
+                ret.add(server);
+                // If an ephemeral port was requested, the rest of servers must use the port chosen for the first one
+                bound = server.getAddress();
+            }
+        } catch (UnsupportedOperationException e) {
+            ret.forEach(server -> server.stop(0));
+            logger.warn("Unable to enable SO_REUSEPORT, a single server is created", e);
+            return Collections.singletonList(createServer());
+        } catch (IOException | RuntimeException e) {
+            ret.forEach(server -> server.stop(0));
+            throw e;
+        }
+        if (config.isDebug()) {
+            logger.debug("Create " + acceptors + " servers listening on " + bound);
+        }
+        return ret;
+    }
+
+    private void addControllers() throws Throwable {
+        if (registries.isEmpty()) {
+            findControllers();
+            return;
+        }
+        for (ControllerRegistry registry : registries) {
+            for (Map.Entry<String, Object> entry : registry.getControllers().entrySet()) {
+                addController(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private Map<String, HttpHandler> configureControllers(EventManager manager) {
+        Map<String, HttpHandler> ret = new ConcurrentHashMap<>();
+        Stream<Map.Entry<String, Controller>> entries = controllers.entrySet().stream();
+        if (parallelConfiguration && controllers.size() > 1) {
+            entries = entries.parallel();
+        }
+        entries.forEach(entry -> {
+            Controller controller = entry.getValue();
+            PipelineHandler handler = new PipelineHandler(config.useAsync(), manager);
+            SunHandler sunHandler = new SunHandler(controller, handler, config, options);
+            configure(handler, controller);
+            ret.put(entry.getKey(), sunHandler);
+        });
+        return new HashMap<>(ret);
+    }
+
+    private void registerBulkheads() {
+        Map<String, Bulkhead> bulkheads = options.getBulkheads();
+        if (bulkheads.isEmpty()) {
+            return;
+        }
+        Set<String> routes = new HashSet<>();
+        controllers.values().forEach(controller -> routes.add(controller.getRoute()));
+        for (String route : bulkheads.keySet()) {
+            if (!routes.contains(route)) {
+                throw new IllegalStateException("No controller found for the bulkhead route " + route);
+            }
+        }
+        SunMetrics metrics = options.getMetrics();
+        if (metrics instanceof MetricsRegistry) {
+            bulkheads.values().forEach(((MetricsRegistry) metrics)::addBulkhead);
+        }
+    }
+
+    private static long millis(long from, long to) {
+        return (to - from) / 1_000_000;
+    }
+
     /**
      * Creates an Amaya Server instance corresponding to the specified parameters
      * and resets the builder to the initial parameters.
+     * The controllers are found and configured before any server is bound, and if the servers
+     * cannot be set up, all of them are stopped. The time spent on each phase of the build is logged.
      *
      * @return {@link HttpServer} instance
      * @throws IOException in case of unsuccessful initialization of the server
      */
     @Override
     public Amaya<HttpServer> build() throws Throwable {
-        HttpServer server;
-        if (configurator != null) {
-            server = makeHttpsServer();
-        } else {
-            server = Servers.httpServer(address, backlog);
+        long start = System.nanoTime();
+        addControllers();
+        registerBulkheads();
+        long found = System.nanoTime();
+        DrainTracker drainTracker = null;
+        if (drainTimeout >= 0) {
+            drainTracker = new DrainTracker();
+            options.setDrainTracker(drainTracker);
         }
-        server.setExecutor(executor);
         EventManager manager = new EventManager(executor, config.isDebug());
-        findControllers();
-        controllers.forEach((path, controller) -> {
-            PipelineHandler handler = new PipelineHandler(config.useAsync(), manager);
-            SunHandler sunHandler = new SunHandler(controller, handler, config);
-            configure(handler, controller);
-            if (path.equals("")) {
-                path = "/";
+        Map<String, HttpHandler> handlers = configureControllers(manager);
+        handlers.putAll(resources);
+        if (metricsPath != null) {
+            handlers.put(metricsPath, new MetricsHandler(metricsRegistry));
+        }
+        Map<String, HttpHandler> contexts = handlers;
+        if (singleContext) {
+            RootHandler root = new RootHandler();
+            handlers.forEach(root::addHandler);
+            contexts = Collections.singletonMap("/", root);
+        }
+        ConcurrencyLimiter limiter = options.getLimiter();
+        Executor dispatcher = executor;
+        if (limiter != null || drainTracker != null) {
+            dispatcher = new AdmissionExecutor(executor, limiter, drainTracker);
+        }
+        long configured = System.nanoTime();
+        List<HttpServer> servers = createServers();
+        long created = System.nanoTime();
+        try {
+            // The sessions read the actions through a live view, so they can be added after the handlers are created
+            if (!cacheRules.isEmpty()) {
+                ResponseCache cache = new ResponseCache(responseCacheSize);
+                cacheRules.forEach(cache::addRule);
+                cacheIdentityHeaders.forEach(cache::addIdentityHeader);
+                options.addInputAction(new ServeCachedAction(cache));
+                options.addOutputAction(new CacheResponseAction(cache, config.getCharset()));
             }
-            server.createContext(path, sunHandler);
-        });
+            if (compression != null) {
+                options.addOutputAction(new CompressResponseAction(compression));
+            }
+            for (HttpServer server : servers) {
+                server.setExecutor(dispatcher);
+                contexts.forEach((path, handler) -> server.createContext(path.equals("") ? "/" : path, handler));
+            }
+        } catch (RuntimeException e) {
+            servers.forEach(server -> server.stop(0));
+            throw e;
+        }
+        long end = System.nanoTime();
+        logger.info("Server built in " + millis(start, end) + " ms: controllers (" + controllers.size() + ") " +
+                millis(start, found) + " ms, configuration " + millis(found, configured) +
+                " ms, servers " + millis(configured, created) +
+                " ms, contexts " + millis(created, end) + " ms");
+        SunAmaya ret = new SunAmaya(manager, servers, start);
+        if (drainTracker != null) {
+            ret.setDrain(drainTracker, drainTimeout);
+        }
         resetValues();
-        return new SunAmaya(manager, server);
+        return ret;
     }
 }
@@ -0,0 +1,278 @@
+package io.github.amayaframework.core.sun;
+
+import io.github.amayaframework.core.config.AmayaConfig;
+import io.github.amayaframework.core.pipeline.PipelineAction;
+import io.github.amayaframework.core.sun.actions.SunOutputStream;
+import io.github.amayaframework.core.sun.actions.SunRequestData;
+import io.github.amayaframework.core.sun.actions.SunResponseData;
+import io.github.amayaframework.core.sun.handlers.Bulkhead;
+import io.github.amayaframework.core.sun.handlers.ConcurrencyLimiter;
+import io.github.amayaframework.core.sun.handlers.DrainTracker;
+import io.github.amayaframework.core.sun.handlers.RateLimiter;
+import io.github.amayaframework.core.sun.metrics.SunMetrics;
+import io.github.amayaframework.core.sun.multipart.MultipartParser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A container for the settings of the sun implementation that are not covered by {@link AmayaConfig}.</p>
+ * <p>Filled by {@link SunBuilder} and passed to handlers, sessions and pipeline data containers.</p>
+ */
+public class SunOptions {
+    /**
+     * The default maximum number of cached routes for each controller and request method.
+     */
+    public static final int DEFAULT_ROUTE_CACHE_SIZE = 1024;
+    private final List<PipelineAction<SunRequestData, SunRequestData>> inputActions;
+    private final List<PipelineAction<SunRequestData, SunRequestData>> inputView;
+    private final List<PipelineAction<SunResponseData, SunResponseData>> outputActions;
+    private final List<PipelineAction<SunResponseData, SunResponseData>> outputView;
+    private final Map<String, Bulkhead> bulkheads;
+    private final Map<String, Bulkhead> bulkheadView;
+    private int chunkSize;
+    private int routeCacheSize;
+    private boolean pooled;
+    private ConcurrencyLimiter limiter;
+    private RateLimiter rateLimiter;
+    private SunMetrics metrics;
+    private DrainTracker drainTracker;
+    private long maxBodySize;
+    private int spillThreshold;
+    private Path tempDirectory;
+    private int maxParts;
+    private long maxPartsMemory;
+    private long deferredTimeout;
+
+    public SunOptions() {
+        inputActions = new ArrayList<>();
+        inputView = Collections.unmodifiableList(inputActions);
+        outputActions = new ArrayList<>();
+        outputView = Collections.unmodifiableList(outputActions);
+        bulkheads = new HashMap<>();
+        bulkheadView = Collections.unmodifiableMap(bulkheads);
+        chunkSize = SunOutputStream.DEFAULT_CHUNK_SIZE;
+        routeCacheSize = DEFAULT_ROUTE_CACHE_SIZE;
+        maxBodySize = -1;
+        spillThreshold = MultipartParser.DEFAULT_SPILL_THRESHOLD;
+        maxParts = MultipartParser.DEFAULT_MAX_PARTS;
+        maxPartsMemory = MultipartParser.DEFAULT_MAX_MEMORY;
+        deferredTimeout = -1;
+    }
+
+    /**
+     * Returns the number of bytes accumulated by streaming responses before they are handed to the exchange.
+     *
+     * @return chunk size in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the actions executed by the session before the input pipeline. An action can answer
+     * the request itself by marking the data as responded, then the pipelines are skipped.
+     *
+     * @return unmodifiable list of actions
+     */
+    public List<PipelineAction<SunRequestData, SunRequestData>> getInputActions() {
+        return inputView;
+    }
+
+    void addInputAction(PipelineAction<SunRequestData, SunRequestData> action) {
+        inputActions.add(action);
+    }
+
+    /**
+     * Returns the actions executed by {@link io.github.amayaframework.core.sun.actions.ProcessHeadersAction}
+     * right before the response headers are sent, so they see the response as changed by all preceding
+     * actions of the output pipeline.
+     *
+     * @return unmodifiable list of actions
+     */
+    public List<PipelineAction<SunResponseData, SunResponseData>> getOutputActions() {
+        return outputView;
+    }
+
+    void addOutputAction(PipelineAction<SunResponseData, SunResponseData> action) {
+        outputActions.add(action);
+    }
+
+    /**
+     * Returns the maximum number of cached routes for each controller and request method.
+     *
+     * @return cache size, 0 if the cache is disabled
+     */
+    public int getRouteCacheSize() {
+        return routeCacheSize;
+    }
+
+    void setRouteCacheSize(int routeCacheSize) {
+        this.routeCacheSize = routeCacheSize;
+    }
+
+    /**
+     * Checks if each handler thread reuses its session for all exchanges it processes.
+     *
+     * @return true, if sessions are pooled
+     */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * Returns the limiter of concurrently processed requests.
+     *
+     * @return {@link ConcurrencyLimiter} instance or null, if the number of requests is not limited
+     */
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    void setLimiter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Returns the bulkheads processing the exchanges of controllers, by the routes of the controllers.
+     * The exchanges of controllers without a bulkhead are processed by the server executor.
+     *
+     * @return unmodifiable map of bulkheads
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        return bulkheadView;
+    }
+
+    void addBulkhead(String route, Bulkhead bulkhead) {
+        bulkheads.put(route, bulkhead);
+    }
+
+    /**
+     * Returns the per-client limiter of the request rate.
+     *
+     * @return {@link RateLimiter} instance or null, if the rate is not limited
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Returns the receiver of the measurements made while processing requests.
+     *
+     * @return {@link SunMetrics} instance or null, if the measurements are disabled
+     */
+    public SunMetrics getMetrics() {
+        return metrics;
+    }
+
+    void setMetrics(SunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the counter of exchanges in flight, used to drain the server when it is closed.
+     *
+     * @return {@link DrainTracker} instance or null, if the server is stopped without draining
+     */
+    public DrainTracker getDrainTracker() {
+        return drainTracker;
+    }
+
+    void setDrainTracker(DrainTracker drainTracker) {
+        this.drainTracker = drainTracker;
+    }
+
+    /**
+     * Returns the maximum size of the request body.
+     *
+     * @return size in bytes, -1 if the size is not limited
+     */
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    void setMaxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Returns the size of the multipart part content, above which the content is moved to a temporary file.
+     *
+     * @return size in bytes
+     */
+    public int getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    void setSpillThreshold(int spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Returns the maximum number of parts in a multipart body.
+     *
+     * @return number of parts
+     */
+    public int getMaxParts() {
+        return maxParts;
+    }
+
+    void setMaxParts(int maxParts) {
+        this.maxParts = maxParts;
+    }
+
+    /**
+     * Returns the maximum total size of the multipart part contents kept in memory for one request.
+     *
+     * @return size in bytes
+     */
+    public long getMaxPartsMemory() {
+        return maxPartsMemory;
+    }
+
+    void setMaxPartsMemory(long maxPartsMemory) {
+        this.maxPartsMemory = maxPartsMemory;
+    }
+
+    /**
+     * Returns the directory of the temporary files of multipart parts.
+     *
+     * @return {@link Path} of the directory or null, if the default one is used
+     */
+    public Path getTempDirectory() {
+        return tempDirectory;
+    }
+
+    void setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Returns the maximum time to wait for the completion of a deferred response.
+     *
+     * @return time in milliseconds, -1 if the time is not limited
+     */
+    public long getDeferredTimeout() {
+        return deferredTimeout;
+    }
+
+    void setDeferredTimeout(long deferredTimeout) {
+        this.deferredTimeout = deferredTimeout;
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.contexts.HttpResponse;
+import io.github.amayaframework.core.sun.handlers.ResponseCache;
+import io.github.amayaframework.core.sun.util.ContentHeaders;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.core.sun.util.ResponseEncoder;
+import io.github.amayaframework.http.ContentType;
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>The output action during which successful responses to GET requests are put into the response cache.</p>
+ * <p>The body is encoded once, the strong entity tag is computed from the encoded bytes and attached
+ * to the response, and the body is replaced with the bytes, so it is not encoded again when sent.
+ * Responses to requests carrying credentials, streaming responses, responses setting cookies and responses
+ * marked with no-store or private Cache-Control are not cached.</p>
+ * <p>Receives: {@link SunResponseData}</p>
+ * <p>Returns: {@link SunResponseData}</p>
+ */
+public class CacheResponseAction extends MeasuredAction<SunResponseData, SunResponseData> {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private final ResponseCache cache;
+    private final Charset charset;
+
+    public CacheResponseAction(ResponseCache cache, Charset charset) {
+        this.cache = Objects.requireNonNull(cache);
+        this.charset = Objects.requireNonNull(charset);
+    }
+
+    private static String makeTag(byte[] body) {
+        long hash = FNV_OFFSET;
+        for (byte b : body) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return "\"" + Long.toHexString(hash) + "-" + Integer.toHexString(body.length) + "\"";
+    }
+
+    private static boolean isCacheable(HttpResponse response) {
+        if (response.getCode() != HttpCode.OK || response.getOutputStreamHandler() != null) {
+            return false;
+        }
+        if (!response.getCookies().isEmpty()) {
+            return false;
+        }
+        HeaderMap headers = response.getHeaderMap();
+        if (headers.getFirst(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        String control = headers.getFirst(HttpHeaders.CACHE_CONTROL);
+        return control == null || !(control.contains("no-store") || control.contains("private"));
+    }
+
+    private byte[] encode(HttpResponse response) {
+        Object body = response.getBody();
+        if (body instanceof byte[]) {
+            return ((byte[]) body).clone();
+        }
+        ByteBuffer buffer;
+        if (body instanceof ByteBuffer) {
+            buffer = ((ByteBuffer) body).duplicate();
+        } else {
+            ContentType type = response.getContentType();
+            if (body == null || type == null || !type.isString()) {
+                return null;
+            }
+            Charset charset = response.getCharset();
+            CharSequence sequence = body instanceof CharSequence ? (CharSequence) body : body.toString();
+            buffer = ResponseEncoder.get().encode(sequence, charset == null ? this.charset : charset);
+        }
+        byte[] ret = new byte[buffer.remaining()];
+        buffer.get(ret);
+        return ret;
+    }
+
+    private String getContentHeader(HttpResponse response) {
+        ContentType type = response.getContentType();
+        if (type == null) {
+            return null;
+        }
+        Charset charset = response.getCharset();
+        return ContentHeaders.get(type, charset == null ? this.charset : charset);
+    }
+
+    @Override
+    protected SunResponseData process(SunResponseData data) {
+        HttpExchange exchange = data.exchange;
+        if (!exchange.getRequestMethod().equals("GET") || cache.isPersonal(exchange.getRequestHeaders())) {
+            return data;
+        }
+        URI uri = exchange.getRequestURI();
+        long ttl = cache.getTtl(uri.getRawPath());
+        if (ttl == 0) {
+            return data;
+        }
+        HttpResponse response = data.getResponse();
+        if (!isCacheable(response)) {
+            return data;
+        }
+        byte[] body = encode(response);
+        if (body == null) {
+            return data;
+        }
+        String tag = makeTag(body);
+        HeaderMap headers = response.getHeaderMap();
+        List<String> pairs = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(HttpHeaders.ETAG)) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                pairs.add(entry.getKey());
+                pairs.add(value);
+            }
+        }
+        String content = getContentHeader(response);
+        if (content != null) {
+            pairs.add(HttpHeaders.CONTENT_TYPE);
+            pairs.add(content);
+        }
+        // The tag is sent separately by the serving action, so it is attached after the headers are copied
+        headers.set(HttpHeaders.ETAG, tag);
+        cache.put(ResponseCache.getKey(uri), response.getCode(), pairs.toArray(new String[0]), body, tag, ttl);
+        response.setBody(body);
+        return data;
+    }
+}
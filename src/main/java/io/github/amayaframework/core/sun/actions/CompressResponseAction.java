@@ -0,0 +1,65 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.contexts.HttpResponse;
+import io.github.amayaframework.core.sun.CompressionOptions;
+import io.github.amayaframework.core.sun.util.Compressor;
+import io.github.amayaframework.core.sun.util.ContentEncoding;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.http.ContentType;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * <p>The output action during which the response compression is negotiated. Executed right before
+ * the headers are sent, after the actions of the output pipeline.</p>
+ * <p>If the content type of the response is allowed and the client accepts gzip or deflate,
+ * the compressor is attached to the response data, and the body will be compressed when it is sent.</p>
+ * <p>Receives: {@link SunResponseData}</p>
+ * <p>Returns: {@link SunResponseData}</p>
+ */
+public class CompressResponseAction extends MeasuredAction<SunResponseData, SunResponseData> {
+    private final Set<ContentType> types;
+    private final Compressor gzip;
+    private final Compressor deflate;
+
+    public CompressResponseAction(CompressionOptions options) {
+        this.types = EnumSet.noneOf(ContentType.class);
+        Set<String> allowed = options.getTypes();
+        for (ContentType type : ContentType.values()) {
+            if (allowed.isEmpty() ? type.isString() : allowed.contains(type.getHeader().toLowerCase())) {
+                types.add(type);
+            }
+        }
+        int level = options.getLevel();
+        int poolSize = options.getPoolSize();
+        int minSize = options.getMinSize();
+        this.gzip = new Compressor(ContentEncoding.GZIP, level, poolSize, minSize);
+        this.deflate = new Compressor(ContentEncoding.DEFLATE, level, poolSize, minSize);
+    }
+
+    @Override
+    protected SunResponseData process(SunResponseData data) {
+        HttpResponse response = data.getResponse();
+        if (response.getBody() == null && response.getOutputStreamHandler() == null) {
+            return data;
+        }
+        ContentType type = response.getContentType();
+        if (type == null || !types.contains(type)) {
+            return data;
+        }
+        if (response.getHeaderMap().getFirst(HttpHeaders.CONTENT_ENCODING) != null) {
+            return data;
+        }
+        HttpExchange exchange = data.exchange;
+        response.getHeaderMap().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ContentEncoding encoding = ContentEncoding.negotiate(
+                exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)
+        );
+        if (encoding != null) {
+            data.setCompressor(encoding == ContentEncoding.GZIP ? gzip : deflate);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.amayaframework.core.sun.actions;
+
+import com.github.romanqed.util.Action;
+import io.github.amayaframework.core.pipeline.PipelineAction;
+import io.github.amayaframework.core.sun.events.SunEvents;
+import io.github.amayaframework.core.sun.metrics.SunMetrics;
+
+/**
+ * <p>A pipeline action whose execution is measured: the time is reported to {@link SunMetrics#actionFinished}
+ * and an action event of {@link SunEvents} is recorded. When both are disabled, the action is called directly.</p>
+ * <p>The pipelines are assembled by the core, which does not expose its own actions, so only the actions
+ * extending this class (or {@link MeasuredInputAction}) are measured. User actions can extend it to be
+ * reported under their simple class name.</p>
+ *
+ * @param <T> type of the received data
+ * @param <R> type of the returned data
+ */
+public abstract class MeasuredAction<T extends SunData, R> extends PipelineAction<T, R> {
+    private final String name;
+    private final Action<T, R> body = this::process;
+
+    protected MeasuredAction() {
+        this.name = getClass().getSimpleName();
+    }
+
+    /**
+     * Returns the name under which the action is reported.
+     *
+     * @return name of the action
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Executes the action, measuring it as described in {@link MeasuredAction}.
+     * Shared by {@link MeasuredAction} and {@link MeasuredInputAction}.
+     *
+     * @param name   name under which the action is reported
+     * @param data   received data
+     * @param action the action itself
+     * @param <T>    type of the received data
+     * @param <R>    type of the returned data
+     * @return returned data
+     * @throws Throwable if the action fails
+     */
+    static <T extends SunData, R> R measure(String name, T data, Action<T, R> action) throws Throwable {
+        SunMetrics metrics = data.getOptions().getMetrics();
+        Object event = SunEvents.beginAction();
+        if (metrics == null && event == null) {
+            return action.execute(data);
+        }
+        long start = metrics == null ? 0 : System.nanoTime();
+        try {
+            return action.execute(data);
+        } finally {
+            if (metrics != null) {
+                metrics.actionFinished(name, System.nanoTime() - start);
+            }
+            SunEvents.endAction(event, name);
+        }
+    }
+
+    @Override
+    public final R execute(T data) throws Throwable {
+        return measure(name, data, body);
+    }
+
+    /**
+     * Executes the action itself.
+     *
+     * @param data received data
+     * @return returned data
+     * @throws Throwable if the action fails
+     */
+    protected abstract R process(T data) throws Throwable;
+}
@@ -0,0 +1,43 @@
+package io.github.amayaframework.core.sun.actions;
+
+import com.github.romanqed.util.Action;
+import io.github.amayaframework.core.pipeline.InputAction;
+
+/**
+ * <p>An input action whose execution is measured in the same way as {@link MeasuredAction},
+ * for actions that need the rejection helpers of {@link InputAction}.</p>
+ *
+ * @param <T> type of the received data
+ * @param <R> type of the returned data
+ */
+public abstract class MeasuredInputAction<T extends SunData, R> extends InputAction<T, R> {
+    private final String name;
+    private final Action<T, R> body = this::process;
+
+    protected MeasuredInputAction() {
+        this.name = getClass().getSimpleName();
+    }
+
+    /**
+     * Returns the name under which the action is reported.
+     *
+     * @return name of the action
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public final R execute(T data) throws Throwable {
+        return MeasuredAction.measure(name, data, body);
+    }
+
+    /**
+     * Executes the action itself.
+     *
+     * @param data received data
+     * @return returned data
+     * @throws Throwable if the action fails
+     */
+    protected abstract R process(T data) throws Throwable;
+}
@@ -1,45 +1,61 @@
 package io.github.amayaframework.core.sun.actions;
 
-import com.github.romanqed.util.Checks;
-import io.github.amayaframework.core.pipeline.InputAction;
+import io.github.amayaframework.core.routes.MethodRoute;
 import io.github.amayaframework.core.sun.contexts.SunHttpRequest;
 import io.github.amayaframework.core.util.ParseUtil;
 import io.github.amayaframework.http.HttpCode;
-import io.github.amayaframework.http.HttpUtil;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 
 import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>The action during which the basic components of the request will be checked and parsed:
  * query parameters, path parameters, headers and the request body.</p>
+ * <p>The query string is parsed on the first access to the query parameters. Path parameters are
+ * extracted immediately, so that malformed ones are rejected, unless they have already been extracted
+ * by the session. Routes that turn out to have no parameters are remembered and skipped afterwards.</p>
  * <p>Receives: {@link SunRequestData}</p>
  * <p>Returns: {@link SunRequestData}</p>
  */
-public class ParseRequestAction extends InputAction<SunRequestData, SunRequestData> {
-    @Override
-    public SunRequestData execute(SunRequestData data) {
-        HttpExchange exchange = data.exchange;
-        Charset charset = data.getCharset();
-        Map<String, List<String>> query = Checks.safetyCall(
-                () -> HttpUtil.parseQueryString(exchange.getRequestURI().getQuery(), charset),
-                () -> new HashMap<>()
-        );
-        Map<String, Object> params = null;
+public class ParseRequestAction extends MeasuredInputAction<SunRequestData, SunRequestData> {
+    private final Map<MethodRoute, Boolean> plainRoutes = new ConcurrentHashMap<>();
+
+    private Map<String, Object> extractParameters(SunRequestData data) {
+        MethodRoute route = data.getRoute();
+        if (plainRoutes.containsKey(route)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> ret = null;
         try {
-            params = ParseUtil.extractRouteParameters(data.getRoute(), data.getPath());
+            ret = ParseUtil.extractRouteParameters(route, data.getPath());
         } catch (Exception e) {
             reject(HttpCode.BAD_REQUEST);
         }
+        if (ret != null && ret.isEmpty()) {
+            plainRoutes.put(route, Boolean.TRUE);
+        }
+        return ret;
+    }
+
+    @Override
+    protected SunRequestData process(SunRequestData data) {
+        HttpExchange exchange = data.exchange;
+        Charset charset = data.getCharset();
+        Map<String, Object> params = data.getParameters();
+        if (params == null) {
+            params = extractParameters(data);
+        }
         SunHttpRequest request = new SunHttpRequest();
         request.setCharset(charset);
         request.setHeaders(exchange.getRequestHeaders());
-        request.setQuery(query);
+        request.setQuery(exchange.getRequestURI().getQuery(), charset);
         request.setPathParameters(params);
+        request.setData(data);
         data.setRequest(request);
+        data.markInputEnd();
         return data;
     }
 }
@@ -1,33 +1,27 @@
 package io.github.amayaframework.core.sun.actions;
 
-import com.github.romanqed.util.Checks;
-import io.github.amayaframework.core.pipeline.InputAction;
-import io.github.amayaframework.core.util.IOUtil;
-import io.github.amayaframework.http.HttpUtil;
+import io.github.amayaframework.core.sun.contexts.CookieMap;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
 
-import javax.servlet.http.Cookie;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * <p>The action during which the request cookies are parsed.</p>
+ * <p>Requests without cookies share the same empty map. Otherwise, the header is scanned once
+ * and the cookies are created only when they are requested, see {@link CookieMap}.</p>
  * <p>Receives: {@link SunRequestData}</p>
  * <p>Returns: {@link SunRequestData}</p>
  */
-public class ParseRequestCookiesAction extends InputAction<SunRequestData, SunRequestData> {
+public class ParseRequestCookiesAction extends MeasuredInputAction<SunRequestData, SunRequestData> {
     @Override
-    public SunRequestData execute(SunRequestData data) {
-        String header = data.getRequest().getHeader(HttpUtil.COOKIE_HEADER);
-        if (header == null) {
-            data.getRequest().setCookies(Collections.unmodifiableMap(new HashMap<>()));
-            return data;
+    protected SunRequestData process(SunRequestData data) {
+        String header = data.getRequest().getHeader(HttpHeaders.COOKIE);
+        if (header == null || header.isEmpty()) {
+            data.getRequest().setCookies(Collections.emptyMap());
+        } else {
+            data.getRequest().setCookies(new CookieMap(header));
         }
-        Map<String, Cookie> cookies = Checks.safetyCall(
-                () -> IOUtil.readCookieHeader(header),
-                () -> new HashMap<>()
-        );
-        data.getRequest().setCookies(Collections.unmodifiableMap(cookies));
+        data.markInputEnd();
         return data;
     }
 }
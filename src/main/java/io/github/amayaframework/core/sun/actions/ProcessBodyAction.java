@@ -5,11 +5,13 @@ import io.github.amayaframework.core.actions.WithConfig;
 import io.github.amayaframework.core.config.AmayaConfig;
 import io.github.amayaframework.core.contexts.FixedOutputStream;
 import io.github.amayaframework.core.contexts.HttpResponse;
-import io.github.amayaframework.core.pipeline.PipelineAction;
-import io.github.amayaframework.core.sun.handlers.SunSession;
+import io.github.amayaframework.core.sun.events.SunEvents;
+import io.github.amayaframework.core.sun.util.Compressor;
+import io.github.amayaframework.core.sun.util.ResponseEncoder;
 import io.github.amayaframework.http.ContentType;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 /**
@@ -18,7 +20,7 @@ import java.nio.charset.Charset;
  * <p>Returns: {@link Void}</p>
  */
 @WithConfig
-public class ProcessBodyAction extends PipelineAction<SunResponseData, Void> {
+public class ProcessBodyAction extends MeasuredAction<SunResponseData, Void> {
     private final Charset charset;
 
     public ProcessBodyAction(AmayaConfig config) {
@@ -26,27 +28,55 @@ public class ProcessBodyAction extends PipelineAction<SunResponseData, Void> {
     }
 
     @Override
-    public Void execute(SunResponseData data) throws Throwable {
+    protected Void process(SunResponseData data) throws Throwable {
+        Object event = SunEvents.beginBody();
+        if (event == null && data.getOptions().getMetrics() == null) {
+            send(data);
+            return null;
+        }
+        HttpResponse response = data.getResponse();
+        long start = System.nanoTime();
+        long bytes = -1;
+        try {
+            bytes = send(data);
+        } finally {
+            data.setWriteTime(System.nanoTime() - start);
+            SunEvents.endBody(event, response.getCode(), bytes, response.getOutputStreamHandler() != null);
+        }
+        return null;
+    }
+
+    private long send(SunResponseData data) throws Throwable {
         HttpExchange exchange = data.exchange;
         HttpResponse response = data.getResponse();
         ContentType type = response.getContentType();
         Handler<FixedOutputStream> handler = response.getOutputStreamHandler();
+        Compressor compressor = data.getCompressor();
         if (handler != null) {
-            FixedOutputStream stream = new SunOutputStream(exchange, response.getCode());
-            handler.handle(stream);
-            long remaining = stream.getRemainingLength();
-            if (remaining != 0) {
-                throw new IllegalStateException("Not all data has been sent, " + remaining + " bytes are left");
+            int chunkSize = data.getOptions().getChunkSize();
+            SunOutputStream stream = new SunOutputStream(exchange, response.getCode(), chunkSize, compressor);
+            try {
+                handler.handle(stream);
+                long remaining = stream.getRemainingLength();
+                if (remaining != 0) {
+                    throw new IllegalStateException("Not all data has been sent, " + remaining + " bytes are left");
+                }
+                stream.finish();
+            } finally {
+                stream.release();
             }
-            stream.flush();
-            return null;
+            return -1;
+        }
+        Object body = response.getBody();
+        if (body instanceof byte[] || body instanceof ByteBuffer) {
+            return ResponseEncoder.send(exchange, charset, response.getCode(), body, compressor);
         }
         if (type != null && type.isString()) {
             Charset charset = response.getCharset();
-            SunSession.send(exchange, charset == null ? this.charset : charset, response.getCode(), response.getBody());
-            return null;
+            charset = charset == null ? this.charset : charset;
+            return ResponseEncoder.send(exchange, charset, response.getCode(), body, compressor);
         }
         exchange.sendResponseHeaders(response.getCode(), 0);
-        return null;
+        return 0;
     }
 }
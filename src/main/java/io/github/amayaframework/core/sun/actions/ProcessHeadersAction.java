@@ -4,23 +4,33 @@ import io.github.amayaframework.core.actions.WithConfig;
 import io.github.amayaframework.core.config.AmayaConfig;
 import io.github.amayaframework.core.contexts.HttpResponse;
 import io.github.amayaframework.core.pipeline.PipelineAction;
+import io.github.amayaframework.core.sun.SunOptions;
+import io.github.amayaframework.core.sun.contexts.FixedCookie;
+import io.github.amayaframework.core.sun.util.ContentHeaders;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
 import io.github.amayaframework.core.util.IOUtil;
 import io.github.amayaframework.http.ContentType;
 import io.github.amayaframework.http.HeaderMap;
-import io.github.amayaframework.http.HttpUtil;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 
 import javax.servlet.http.Cookie;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * <p>The output action during which the response headers is sent.</p>
+ * <p>The Set-Cookie headers of {@link FixedCookie}s are taken ready-made, the Content-Type header
+ * is taken from {@link ContentHeaders}, and the headers of the response are copied only if there are any.</p>
+ * <p>The header map of the response is created by amaya-core together with the response, so it cannot be backed
+ * by the exchange's map, and the copy is kept: it is shallow, the value lists are shared, not duplicated.</p>
+ * <p>Before the headers are sent, {@link SunOptions#getOutputActions()} (such as caching and compression)
+ * are executed, so they see the response as changed by the preceding actions of the pipeline.</p>
  * <p>Receives: {@link SunResponseData}</p>
  * <p>Returns: {@link SunResponseData}</p>
  */
 @WithConfig
-public class ProcessHeadersAction extends PipelineAction<SunResponseData, SunResponseData> {
+public class ProcessHeadersAction extends MeasuredAction<SunResponseData, SunResponseData> {
     private final Charset charset;
 
     public ProcessHeadersAction(AmayaConfig config) {
@@ -28,25 +38,32 @@ public class ProcessHeadersAction extends PipelineAction<SunResponseData, SunRes
     }
 
     @Override
-    public SunResponseData execute(SunResponseData data) {
+    protected SunResponseData process(SunResponseData data) throws Throwable {
+        List<PipelineAction<SunResponseData, SunResponseData>> actions = data.getOptions().getOutputActions();
+        int size = actions.size();
+        for (int i = 0; i < size; ++i) {
+            actions.get(i).execute(data);
+        }
         HttpExchange exchange = data.exchange;
         HttpResponse response = data.getResponse();
         HeaderMap headers = exchange.getResponseHeaders();
-        headers.putAll(response.getHeaderMap());
+        HeaderMap own = response.getHeaderMap();
+        if (!own.isEmpty()) {
+            headers.putAll(own);
+        }
         ContentType type = response.getContentType();
         if (type != null && (response.getOutputStreamHandler() != null || response.getBody() != null)) {
-            String header;
-            if (type.isString()) {
-                Charset charset = response.getCharset();
-                header = HttpUtil.generateContentHeader(type, charset == null ? this.charset : charset);
-            } else {
-                header = type.getHeader();
-            }
-            headers.set(HttpUtil.CONTENT_HEADER, header);
+            Charset charset = response.getCharset();
+            headers.set(HttpHeaders.CONTENT_TYPE, ContentHeaders.get(type, charset == null ? this.charset : charset));
         }
         Collection<Cookie> cookies = response.getCookies();
-        for (Cookie cookie : cookies) {
-            headers.add(HttpUtil.SET_COOKIE_HEADER, IOUtil.cookieToHeader(cookie));
+        if (!cookies.isEmpty()) {
+            for (Cookie cookie : cookies) {
+                String value = cookie instanceof FixedCookie ?
+                        ((FixedCookie) cookie).getHeader() :
+                        IOUtil.cookieToHeader(cookie);
+                headers.add(HttpHeaders.SET_COOKIE, value);
+            }
         }
         data.complete();
         return data;
@@ -0,0 +1,93 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.sun.handlers.ResponseCache;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>The input action during which GET and HEAD requests are answered from the response cache.</p>
+ * <p>If the cache holds an actual response for the request, its encoded bytes are sent as is and the
+ * controller is not called. If the If-None-Match header matches the entity tag of the cached response,
+ * 304 is sent instead, with the stored headers a 304 response must repeat (Cache-Control, Content-Location, Date,
+ * ETag, Expires and Vary). A HEAD request gets the Content-Length of the cached body.
+ * Requests carrying credentials bypass the cache.</p>
+ * <p>Receives: {@link SunRequestData}</p>
+ * <p>Returns: {@link SunRequestData}</p>
+ */
+public class ServeCachedAction extends MeasuredAction<SunRequestData, SunRequestData> {
+    private static final Set<String> NOT_MODIFIED_HEADERS = new HashSet<>(Arrays.asList(
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.CONTENT_LOCATION,
+            HttpHeaders.DATE,
+            HttpHeaders.EXPIRES,
+            HttpHeaders.VARY
+    ));
+    private final ResponseCache cache;
+
+    public ServeCachedAction(ResponseCache cache) {
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    private static boolean isNotModified(HeaderMap headers, ResponseCache.Entry entry) {
+        String match = headers.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (match == null) {
+            return false;
+        }
+        return match.equals("*") || match.contains(entry.getTag());
+    }
+
+    @Override
+    protected SunRequestData process(SunRequestData data) throws IOException {
+        HttpExchange exchange = data.exchange;
+        String method = exchange.getRequestMethod();
+        boolean head = method.equals("HEAD");
+        if (!head && !method.equals("GET")) {
+            return data;
+        }
+        if (cache.isPersonal(exchange.getRequestHeaders())) {
+            return data;
+        }
+        ResponseCache.Entry entry = cache.get(ResponseCache.getKey(exchange.getRequestURI()));
+        if (entry == null) {
+            return data;
+        }
+        HeaderMap response = exchange.getResponseHeaders();
+        response.set(HttpHeaders.ETAG, entry.getTag());
+        data.setResponded();
+        String[] headers = entry.getHeaders();
+        if (isNotModified(exchange.getRequestHeaders(), entry)) {
+            for (int i = 0; i < headers.length; i += 2) {
+                if (NOT_MODIFIED_HEADERS.contains(headers[i])) {
+                    response.add(headers[i], headers[i + 1]);
+                }
+            }
+            exchange.sendResponseHeaders(HttpCode.NOT_MODIFIED, -1);
+            return data;
+        }
+        for (int i = 0; i < headers.length; i += 2) {
+            response.add(headers[i], headers[i + 1]);
+        }
+        byte[] body = entry.getBody();
+        if (head) {
+            // The server does not set the length of a HEAD response, it must be set manually
+            response.set(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length));
+            exchange.sendResponseHeaders(entry.getCode(), -1);
+            return data;
+        }
+        if (body.length == 0) {
+            exchange.sendResponseHeaders(entry.getCode(), -1);
+            return data;
+        }
+        exchange.sendResponseHeaders(entry.getCode(), body.length);
+        exchange.getResponseBody().write(body);
+        return data;
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.sun.SunOptions;
+
+/**
+ * An interface describing the pipeline data containers of the sun implementation.
+ */
+public interface SunData {
+    /**
+     * Returns the settings of the sun implementation.
+     *
+     * @return {@link SunOptions} instance
+     */
+    SunOptions getOptions();
+}
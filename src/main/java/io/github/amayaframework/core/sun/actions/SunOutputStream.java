@@ -1,24 +1,190 @@
 package io.github.amayaframework.core.sun.actions;
 
 import io.github.amayaframework.core.contexts.FixedOutputStream;
+import io.github.amayaframework.core.sun.util.CompressedOutputStream;
+import io.github.amayaframework.core.sun.util.Compressor;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
 import io.github.amayaframework.http.HttpCode;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
+/**
+ * <p>The output stream passed to the response stream handlers.</p>
+ * <p>If the length is specified before the first write, the response is sent with a fixed length.
+ * Otherwise, the response is sent using chunked transfer encoding: written data is accumulated in a buffer
+ * of the chunk size and is handed to the exchange when the buffer is full or when {@link #flush()} is called,
+ * so the memory used does not depend on the size of the response. Writes larger than the chunk size are split,
+ * so no more than the chunk size is handed to the exchange at once.</p>
+ * <p>If a compressor is specified, the data is compressed and always sent in chunked mode, unless the specified
+ * length is less than the minimum compressed size. The specified length is still checked against the number of
+ * bytes written.</p>
+ */
 public class SunOutputStream extends FixedOutputStream {
+    /**
+     * The default size of the buffer used in chunked mode.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
     private final HttpExchange exchange;
     private final HttpCode code;
+    private final int chunkSize;
+    private final Compressor compressor;
+    private OutputStream chunked;
+    private CompressedOutputStream compressed;
+    private long remaining;
+    private boolean started;
 
-    public SunOutputStream(HttpExchange exchange, HttpCode code) {
+    public SunOutputStream(HttpExchange exchange, HttpCode code, int chunkSize, Compressor compressor) {
         super(exchange.getResponseBody());
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
         this.exchange = exchange;
         this.code = code;
+        this.chunkSize = chunkSize;
+        this.compressor = compressor;
+        this.remaining = -1;
+    }
+
+    public SunOutputStream(HttpExchange exchange, HttpCode code, int chunkSize) {
+        this(exchange, code, chunkSize, null);
+    }
+
+    public SunOutputStream(HttpExchange exchange, HttpCode code) {
+        this(exchange, code, DEFAULT_CHUNK_SIZE, null);
     }
 
     @Override
     public void specifyLength(long length) throws IOException {
+        if (started) {
+            throw new IllegalStateException("Response headers have already been sent");
+        }
+        if (compressor != null && length >= compressor.getMinSize()) {
+            remaining = length;
+            startChunked();
+            return;
+        }
         super.specifyLength(length);
+        started = true;
         exchange.sendResponseHeaders(code, length);
     }
+
+    private void startChunked() throws IOException {
+        if (compressor != null) {
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, compressor.getEncoding().getName());
+        }
+        exchange.sendResponseHeaders(code, 0);
+        chunked = new BufferedOutputStream(exchange.getResponseBody(), chunkSize);
+        if (compressor != null) {
+            compressed = compressor.wrap(chunked, chunkSize);
+            chunked = compressed;
+        }
+        started = true;
+    }
+
+    /**
+     * Checks if the response is sent using chunked transfer encoding.
+     *
+     * @return true, if the length was not specified before the first write or the response is compressed
+     */
+    public boolean isChunked() {
+        return chunked != null;
+    }
+
+    @Override
+    public long getRemainingLength() {
+        if (chunked != null) {
+            return remaining < 0 ? 0 : remaining;
+        }
+        return super.getRemainingLength();
+    }
+
+    private void count(int length) throws IOException {
+        if (remaining < 0) {
+            return;
+        }
+        if (length > remaining) {
+            throw new IOException("The specified length has been exceeded");
+        }
+        remaining -= length;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!started) {
+            startChunked();
+        }
+        if (chunked != null) {
+            count(1);
+            chunked.write(b);
+            return;
+        }
+        super.write(b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (!started) {
+            startChunked();
+        }
+        if (chunked != null) {
+            count(len);
+            while (len > chunkSize) {
+                chunked.write(b, off, chunkSize);
+                off += chunkSize;
+                len -= chunkSize;
+            }
+            chunked.write(b, off, len);
+            return;
+        }
+        super.write(b, off, len);
+    }
+
+    /**
+     * Sends the accumulated data to the client. In chunked mode, it produces a chunk
+     * even if the buffer is not full.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (chunked != null) {
+            chunked.flush();
+            return;
+        }
+        super.flush();
+    }
+
+    /**
+     * Completes the response: sends the headers if nothing has been written and flushes the remaining data.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        if (!started) {
+            startChunked();
+        }
+        if (compressed != null) {
+            compressed.close();
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Releases the resources held by the stream without completing the response.
+     * Does nothing if the stream is already finished.
+     */
+    public void release() {
+        if (compressed != null) {
+            compressed.discard();
+        }
+    }
 }
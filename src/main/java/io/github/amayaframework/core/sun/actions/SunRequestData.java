@@ -2,57 +2,249 @@ package io.github.amayaframework.core.sun.actions;
 
 import io.github.amayaframework.core.pipeline.AbstractRequestData;
 import io.github.amayaframework.core.pipeline.RouteData;
-import io.github.amayaframework.http.HttpUtil;
+import io.github.amayaframework.core.sun.SunOptions;
+import io.github.amayaframework.core.sun.multipart.MultipartForm;
+import io.github.amayaframework.core.sun.multipart.MultipartParser;
+import io.github.amayaframework.core.sun.util.BodyTooLargeException;
+import io.github.amayaframework.core.sun.util.ContentHeaders;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.core.sun.util.LimitedInputStream;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
- * A simple container created to transfer data between input pipeline actions.
+ * <p>A simple container created to transfer data between input pipeline actions.
+ * The Content-Type header is parsed on the first request of the content type or the charset, and the parsed
+ * values are shared through {@link ContentHeaders}.</p>
+ * <p>The request body stream is limited by {@link SunOptions#getMaxBodySize()}. The body can be read
+ * at once into an array sized from Content-Length, or parsed as multipart/form-data with large parts
+ * kept in temporary files, which are deleted by {@link #close()}.</p>
  */
-public class SunRequestData extends AbstractRequestData {
+public class SunRequestData extends AbstractRequestData implements SunData {
+    private static final int INITIAL_BODY_BUFFER = 64 * 1024;
     protected final HttpExchange exchange;
-    private final String contentHeader;
+    protected final SunOptions options;
     private final Charset charset;
+    private boolean parsed;
+    private String contentType;
+    private Charset contentCharset;
+    private Map<String, Object> parameters;
+    private InputStream input;
+    private MultipartForm form;
+    private boolean responded;
+    private long inputEnd;
 
-    public SunRequestData(HttpExchange exchange, RouteData data, Charset charset) {
+    public SunRequestData(HttpExchange exchange, RouteData data, Charset charset, SunOptions options) {
         super(data);
         this.exchange = exchange;
-        this.contentHeader = exchange.getRequestHeaders().getFirst(HttpUtil.CONTENT_HEADER);
         this.charset = charset;
+        this.options = options;
+    }
+
+    public SunRequestData(HttpExchange exchange, RouteData data, Charset charset) {
+        this(exchange, data, charset, new SunOptions());
     }
 
     public HttpExchange getExchange() {
         return exchange;
     }
 
+    public SunOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the path parameters extracted in advance, for example, taken from the route cache.
+     *
+     * @return unmodifiable map or null, if the parameters have not been extracted yet
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(Map<String, Object> parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * Marks the end of the request parsing, which separates the input phase from the controller phase
+     * of {@link io.github.amayaframework.core.sun.metrics.SunMetrics}. Does nothing if the metrics are disabled.
+     */
+    public void markInputEnd() {
+        if (options.getMetrics() != null) {
+            inputEnd = System.nanoTime();
+        }
+    }
+
+    /**
+     * Returns the time of the last {@link #markInputEnd()} call.
+     *
+     * @return value of {@link System#nanoTime()} or 0, if the end has not been marked
+     */
+    public long getInputEnd() {
+        return inputEnd;
+    }
+
+    /**
+     * Checks if the response has already been sent by an action executed before the input pipeline.
+     *
+     * @return true, if the pipelines must be skipped
+     */
+    public boolean isResponded() {
+        return responded;
+    }
+
+    public void setResponded() {
+        this.responded = true;
+    }
+
     @Override
     public InputStream getInputStream() {
-        return exchange.getRequestBody();
+        if (input == null) {
+            InputStream body = exchange.getRequestBody();
+            long limit = options.getMaxBodySize();
+            input = limit < 0 ? body : new LimitedInputStream(body, limit);
+        }
+        return input;
     }
 
-    @Override
-    public String getContentType() {
-        if (contentHeader == null) {
+    /**
+     * Returns the length of the body declared by the Content-Length header.
+     *
+     * @return length in bytes or -1, if the header is missing or malformed
+     */
+    public long getContentLength() {
+        return getContentLength(exchange);
+    }
+
+    /**
+     * Returns the length of the body declared by the Content-Length header of the exchange.
+     *
+     * @param exchange exchange to be checked
+     * @return length in bytes or -1, if the header is missing or malformed
+     */
+    public static long getContentLength(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (header == null) {
+            return -1;
+        }
+        try {
+            long ret = Long.parseLong(header.trim());
+            return ret < 0 ? -1 : ret;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the whole request body. If the length of the body is declared, the array grows up to that
+     * length as the body is read, starting from 64 KiB, so a false length does not allocate memory.
+     *
+     * @return byte array containing the body
+     * @throws BodyTooLargeException if the body exceeds the maximum size
+     * @throws IOException           if the body cannot be read
+     */
+    public byte[] readBody() throws IOException {
+        InputStream stream = getInputStream();
+        long length = getContentLength();
+        long limit = options.getMaxBodySize();
+        if (limit >= 0 && length > limit) {
+            throw new BodyTooLargeException(limit);
+        }
+        if (length >= 0 && length <= Integer.MAX_VALUE - 8) {
+            int size = (int) length;
+            // Content-Length is only a claim, so the array grows as the bytes actually arrive
+            byte[] ret = new byte[Math.min(size, INITIAL_BODY_BUFFER)];
+            int position = 0;
+            while (position < size) {
+                if (position == ret.length) {
+                    ret = Arrays.copyOf(ret, (int) Math.min((long) ret.length * 2, size));
+                }
+                int read = stream.read(ret, position, ret.length - position);
+                if (read < 0) {
+                    throw new EOFException("Request body is shorter than its Content-Length");
+                }
+                position += read;
+            }
+            return ret;
+        }
+        ByteArrayOutputStream ret = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        int read;
+        while ((read = stream.read(buffer)) >= 0) {
+            ret.write(buffer, 0, read);
+        }
+        return ret.toByteArray();
+    }
+
+    /**
+     * Parses the request body as multipart/form-data. The body is parsed once, on the first call.
+     *
+     * @return {@link MultipartForm} instance or null, if the body is not multipart/form-data
+     * @throws BodyTooLargeException if the body exceeds the maximum size
+     * @throws IOException           if the body is malformed or cannot be read
+     */
+    public MultipartForm getMultipartForm() throws IOException {
+        if (form != null) {
+            return form;
+        }
+        String header = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        String boundary = MultipartParser.getBoundary(header);
+        if (boundary == null) {
             return null;
         }
-        int position = contentHeader.indexOf(';');
-        if (position < 0) {
-            return contentHeader;
+        MultipartParser parser = new MultipartParser(
+                options.getSpillThreshold(),
+                options.getTempDirectory(),
+                options.getMaxParts(),
+                options.getMaxPartsMemory()
+        );
+        form = parser.parse(getInputStream(), boundary);
+        return form;
+    }
+
+    /**
+     * Deletes the temporary files created while parsing the body.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    public void close() throws IOException {
+        if (form != null) {
+            form.close();
+        }
+    }
+
+    private void parseContentHeader() {
+        parsed = true;
+        String contentHeader = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        if (contentHeader == null) {
+            return;
         }
-        return contentHeader.substring(0, position);
+        ContentHeaders.MediaType type = ContentHeaders.parse(contentHeader, charset);
+        contentType = type.getType();
+        contentCharset = type.getCharset();
     }
 
     @Override
-    public Charset getCharset() {
-        if (contentHeader == null) {
-            return charset;
+    public String getContentType() {
+        if (!parsed) {
+            parseContentHeader();
         }
-        int position = contentHeader.indexOf(';');
-        if (position < 0) {
-            return charset;
+        return contentType;
+    }
+
+    @Override
+    public Charset getCharset() {
+        if (!parsed) {
+            parseContentHeader();
         }
-        return HttpUtil.parseCharsetHeader(contentHeader.substring(position + 1), charset);
+        return contentCharset == null ? charset : contentCharset;
     }
 }
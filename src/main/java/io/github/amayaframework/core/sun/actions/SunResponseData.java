@@ -2,20 +2,60 @@ package io.github.amayaframework.core.sun.actions;
 
 import io.github.amayaframework.core.contexts.HttpResponse;
 import io.github.amayaframework.core.pipeline.AbstractResponseData;
+import io.github.amayaframework.core.sun.SunOptions;
+import io.github.amayaframework.core.sun.util.Compressor;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 
 /**
  * A simple container created to transfer data between output pipeline actions.
  */
-public class SunResponseData extends AbstractResponseData {
+public class SunResponseData extends AbstractResponseData implements SunData {
     protected final HttpExchange exchange;
+    protected final SunOptions options;
+    private Compressor compressor;
+    private long writeTime;
 
-    public SunResponseData(HttpExchange exchange, HttpResponse response) {
+    public SunResponseData(HttpExchange exchange, HttpResponse response, SunOptions options) {
         super(response);
         this.exchange = exchange;
+        this.options = options;
+    }
+
+    public SunResponseData(HttpExchange exchange, HttpResponse response) {
+        this(exchange, response, new SunOptions());
     }
 
     public HttpExchange getExchange() {
         return exchange;
     }
+
+    public SunOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Returns the compressor negotiated for the response.
+     *
+     * @return {@link Compressor} instance or null, if the body must be sent as is
+     */
+    public Compressor getCompressor() {
+        return compressor;
+    }
+
+    public void setCompressor(Compressor compressor) {
+        this.compressor = compressor;
+    }
+
+    /**
+     * Returns the time spent on sending the response to the exchange.
+     *
+     * @return time in nanoseconds, 0 if the response has not been sent or the metrics are disabled
+     */
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public void setWriteTime(long writeTime) {
+        this.writeTime = writeTime;
+    }
 }
@@ -0,0 +1,157 @@
+package io.github.amayaframework.core.sun.contexts;
+
+import javax.servlet.http.Cookie;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A read-only map of the cookies contained in the Cookie request header.</p>
+ * <p>The header is scanned once, remembering only the offsets of names and values.
+ * {@link Cookie} objects are created on demand, when the corresponding cookie is requested.
+ * If a name is repeated, the last value is used. Cookies with invalid names are skipped.</p>
+ */
+public final class CookieMap extends AbstractMap<String, Cookie> {
+    private static final int INITIAL_COUNT = 4;
+    private final String header;
+    private int[] offsets;
+    private Cookie[] cookies;
+    private int count;
+    private Map<String, Cookie> all;
+
+    public CookieMap(String header) {
+        this.header = header;
+        this.offsets = new int[INITIAL_COUNT * 4];
+        scan();
+    }
+
+    private void add(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        int position = count * 4;
+        if (position == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[position] = nameStart;
+        offsets[position + 1] = nameEnd;
+        offsets[position + 2] = valueStart;
+        offsets[position + 3] = valueEnd;
+        ++count;
+    }
+
+    private void scan() {
+        int length = header.length();
+        int start = 0;
+        while (start < length) {
+            int end = header.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            int equals = header.indexOf('=', start);
+            if (equals > start && equals < end) {
+                int nameStart = skipSpaces(start, equals);
+                int nameEnd = trimSpaces(nameStart, equals);
+                int valueStart = skipSpaces(equals + 1, end);
+                int valueEnd = trimSpaces(valueStart, end);
+                if (valueEnd - valueStart >= 2
+                        && header.charAt(valueStart) == '"'
+                        && header.charAt(valueEnd - 1) == '"') {
+                    ++valueStart;
+                    --valueEnd;
+                }
+                if (nameStart < nameEnd) {
+                    add(nameStart, nameEnd, valueStart, valueEnd);
+                }
+            }
+            start = end + 1;
+        }
+        cookies = new Cookie[count];
+    }
+
+    private int skipSpaces(int start, int end) {
+        while (start < end && header.charAt(start) == ' ') {
+            ++start;
+        }
+        return start;
+    }
+
+    private int trimSpaces(int start, int end) {
+        while (end > start && header.charAt(end - 1) == ' ') {
+            --end;
+        }
+        return end;
+    }
+
+    private int find(String name) {
+        int length = name.length();
+        for (int i = count - 1; i >= 0; --i) {
+            int start = offsets[i * 4];
+            if (offsets[i * 4 + 1] - start == length && header.startsWith(name, start)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Cookie getCookie(int index) {
+        Cookie ret = cookies[index];
+        if (ret != null) {
+            return ret;
+        }
+        int position = index * 4;
+        String name = header.substring(offsets[position], offsets[position + 1]);
+        String value = header.substring(offsets[position + 2], offsets[position + 3]);
+        try {
+            ret = new Cookie(name, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        cookies[index] = ret;
+        return ret;
+    }
+
+    @Override
+    public Cookie get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int index = find((String) key);
+        return index < 0 ? null : getCookie(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    private Map<String, Cookie> getAll() {
+        if (all != null) {
+            return all;
+        }
+        Map<String, Cookie> ret = new LinkedHashMap<>();
+        for (int i = 0; i < count; ++i) {
+            Cookie cookie = getCookie(i);
+            if (cookie != null) {
+                ret.put(cookie.getName(), cookie);
+            }
+        }
+        all = Collections.unmodifiableMap(ret);
+        return all;
+    }
+
+    @Override
+    public int size() {
+        return getAll().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0 || getAll().isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, Cookie>> entrySet() {
+        return getAll().entrySet();
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.amayaframework.core.sun.contexts;
+
+import io.github.amayaframework.core.util.IOUtil;
+
+import javax.servlet.http.Cookie;
+import java.util.Objects;
+
+/**
+ * <p>A template for cookies with the same name and attributes but different values, such as session cookies.</p>
+ * <p>The attributes are serialized once, so the Set-Cookie header of a created cookie
+ * is built by a single concatenation.</p>
+ */
+public class CookieTemplate {
+    private final Cookie prototype;
+    private final String attributes;
+
+    /**
+     * Creates a template with the name and the attributes of the specified cookie.
+     *
+     * @param prototype cookie to take the name and the attributes from
+     */
+    public CookieTemplate(Cookie prototype) {
+        this.prototype = (Cookie) Objects.requireNonNull(prototype).clone();
+        String prefix = prototype.getName() + "=" + prototype.getValue();
+        String header = IOUtil.cookieToHeader(prototype);
+        this.attributes = header.startsWith(prefix) ? header.substring(prefix.length()) : null;
+    }
+
+    /**
+     * Creates a fixed cookie with the specified value.
+     *
+     * @param value cookie value
+     * @return {@link FixedCookie} instance
+     */
+    public FixedCookie create(String value) {
+        return new FixedCookie(prototype, value, attributes);
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.amayaframework.core.sun.contexts;
+
+import io.github.amayaframework.core.util.IOUtil;
+
+import javax.servlet.http.Cookie;
+
+/**
+ * <p>A cookie that cannot be changed after creation, whose Set-Cookie header is serialized only once.</p>
+ * <p>Suitable for cookies returned on every response with the same value and attributes.
+ * For cookies with fixed attributes and varying values, use {@link CookieTemplate}.</p>
+ */
+public class FixedCookie extends Cookie {
+    private final String header;
+    private final boolean frozen;
+
+    /**
+     * Creates a fixed copy of the specified cookie.
+     *
+     * @param cookie cookie to be copied
+     */
+    public FixedCookie(Cookie cookie) {
+        this(cookie, cookie.getValue(), null);
+    }
+
+    FixedCookie(Cookie prototype, String value, String attributes) {
+        super(prototype.getName(), value);
+        if (prototype.getComment() != null) {
+            super.setComment(prototype.getComment());
+        }
+        if (prototype.getDomain() != null) {
+            super.setDomain(prototype.getDomain());
+        }
+        if (prototype.getPath() != null) {
+            super.setPath(prototype.getPath());
+        }
+        super.setMaxAge(prototype.getMaxAge());
+        super.setSecure(prototype.getSecure());
+        super.setHttpOnly(prototype.isHttpOnly());
+        super.setVersion(prototype.getVersion());
+        this.header = attributes == null ?
+                IOUtil.cookieToHeader(this) :
+                prototype.getName() + "=" + value + attributes;
+        this.frozen = true;
+    }
+
+    /**
+     * Returns the serialized value of the Set-Cookie header.
+     *
+     * @return header value
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    private void checkFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Fixed cookie cannot be changed");
+        }
+    }
+
+    @Override
+    public void setComment(String purpose) {
+        checkFrozen();
+        super.setComment(purpose);
+    }
+
+    @Override
+    public void setDomain(String domain) {
+        checkFrozen();
+        super.setDomain(domain);
+    }
+
+    @Override
+    public void setMaxAge(int expiry) {
+        checkFrozen();
+        super.setMaxAge(expiry);
+    }
+
+    @Override
+    public void setPath(String uri) {
+        checkFrozen();
+        super.setPath(uri);
+    }
+
+    @Override
+    public void setSecure(boolean flag) {
+        checkFrozen();
+        super.setSecure(flag);
+    }
+
+    @Override
+    public void setValue(String newValue) {
+        checkFrozen();
+        super.setValue(newValue);
+    }
+
+    @Override
+    public void setVersion(int v) {
+        checkFrozen();
+        super.setVersion(v);
+    }
+
+    @Override
+    public void setHttpOnly(boolean isHttpOnly) {
+        checkFrozen();
+        super.setHttpOnly(isHttpOnly);
+    }
+}
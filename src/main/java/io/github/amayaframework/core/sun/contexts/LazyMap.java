@@ -0,0 +1,54 @@
+package io.github.amayaframework.core.sun.contexts;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A read-only map view, the content of which is computed by the supplier on the first access.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class LazyMap<K, V> extends AbstractMap<K, V> {
+    private Supplier<Map<K, V>> supplier;
+    private Map<K, V> map;
+
+    LazyMap(Supplier<Map<K, V>> supplier) {
+        this.supplier = supplier;
+    }
+
+    private Map<K, V> getMap() {
+        if (map == null) {
+            map = supplier.get();
+            supplier = null;
+        }
+        return map;
+    }
+
+    @Override
+    public V get(Object key) {
+        return getMap().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getMap().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return getMap().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getMap().isEmpty();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return getMap().entrySet();
+    }
+}
@@ -1,13 +1,27 @@
 package io.github.amayaframework.core.sun.contexts;
 
+import com.github.romanqed.util.Checks;
 import io.github.amayaframework.core.contexts.AbstractHttpRequest;
+import io.github.amayaframework.core.sun.actions.SunRequestData;
+import io.github.amayaframework.core.sun.multipart.MultipartForm;
 import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpUtil;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * <p>A request passed to controllers by the sun implementation.</p>
+ * <p>Besides the body parsed by the pipeline, the raw body can be read by controllers with {@link #readBody()}
+ * or parsed as multipart/form-data with {@link #getMultipartForm()}, unless it has already been consumed.</p>
+ */
 public class SunHttpRequest extends AbstractHttpRequest {
     protected HeaderMap headers;
+    protected SunRequestData data;
 
     @Override
     public List<String> getHeaders(String key) {
@@ -17,4 +31,54 @@ public class SunHttpRequest extends AbstractHttpRequest {
     public void setHeaders(HeaderMap headers) {
         this.headers = Objects.requireNonNull(headers);
     }
+
+    public void setData(SunRequestData data) {
+        this.data = data;
+    }
+
+    private SunRequestData getData() {
+        if (data == null) {
+            throw new IllegalStateException("Request is not bound to an exchange");
+        }
+        return data;
+    }
+
+    /**
+     * Reads the whole request body, see {@link SunRequestData#readBody()}.
+     *
+     * @return byte array containing the body
+     * @throws IOException if the body cannot be read or exceeds the maximum size
+     */
+    public byte[] readBody() throws IOException {
+        return getData().readBody();
+    }
+
+    /**
+     * Parses the request body as multipart/form-data, see {@link SunRequestData#getMultipartForm()}.
+     * The temporary files of the parts are deleted when the exchange is completed.
+     *
+     * @return {@link MultipartForm} instance or null, if the body is not multipart/form-data
+     * @throws IOException if the body is malformed, cannot be read or exceeds the limits
+     */
+    public MultipartForm getMultipartForm() throws IOException {
+        return getData().getMultipartForm();
+    }
+
+    /**
+     * Sets the raw query string, which will be parsed on the first access to the query parameters.
+     * A malformed query string results in empty parameters.
+     *
+     * @param query   raw query string, may be null
+     * @param charset charset used to decode the parameters
+     */
+    public void setQuery(String query, Charset charset) {
+        if (query == null || query.isEmpty()) {
+            setQuery(Collections.emptyMap());
+            return;
+        }
+        setQuery(new LazyMap<>(() -> Checks.safetyCall(
+                () -> HttpUtil.parseQueryString(query, charset),
+                () -> new HashMap<>()
+        )));
+    }
 }
@@ -0,0 +1,37 @@
+package io.github.amayaframework.core.sun.events;
+
+import io.github.amayaframework.http.HttpCode;
+
+/**
+ * The recorder behind {@link SunEvents}. Its Flight Recorder implementation is compiled separately
+ * for Java 11, so this source set stays free of the jdk.jfr API.
+ * The parameters are described in {@link SunEvents}.
+ */
+interface EventRecorder {
+    Object beginExchange();
+
+    void endExchange(Object event,
+                     String controller,
+                     String route,
+                     String method,
+                     String path,
+                     HttpCode status,
+                     long read,
+                     long written);
+
+    Object beginRouting();
+
+    void endRouting(Object event, String path, String route, boolean cached);
+
+    Object beginAction();
+
+    void endAction(Object event, String action);
+
+    Object beginInvocation();
+
+    void endInvocation(Object event, String controller, String route);
+
+    Object beginBody();
+
+    void endBody(Object event, HttpCode status, long bytes, boolean streamed);
+}
@@ -0,0 +1,172 @@
+package io.github.amayaframework.core.sun.events;
+
+import io.github.amayaframework.http.HttpCode;
+
+/**
+ * <p>A class emitting JDK Flight Recorder events for the stages of request processing:
+ * the whole exchange, route resolution, pipeline actions, the controller invocation and the body write.</p>
+ * <p>Action events are recorded for the actions extending
+ * {@link io.github.amayaframework.core.sun.actions.MeasuredAction}: the sun actions and the user actions
+ * built on it. The pipelines are assembled by the core, so its own actions are not recorded separately.</p>
+ * <p>Each stage is wrapped with a begin and an end call. The begin call returns an event handle, which is null
+ * unless a recording with the event enabled is running, and the end call does nothing for a null handle,
+ * so no event is created and no field is filled while recording is off.</p>
+ * <p>The event classes are compiled for Java 11 in a separate source set, so the Java 8 sources do not depend on
+ * the Flight Recorder API. If the runtime does not provide the API or cannot load them, the events are not supported,
+ * all begin calls return null and the classes referring to the API are never used.
+ * Events are registered under the {@value #PREFIX} prefix and can be enabled in a .jfc file or with
+ * {@code jdk.jfr.Recording#enable}.</p>
+ */
+public final class SunEvents {
+    /**
+     * The prefix of the names of all events.
+     */
+    public static final String PREFIX = "io.github.amayaframework.sun.";
+    private static final EventRecorder RECORDER = loadRecorder();
+
+    private SunEvents() {
+    }
+
+    private static EventRecorder loadRecorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            // Registers the event types, fails if the recorder is unavailable or disabled
+            Class<?> clazz = Class.forName(SunEvents.class.getPackage().getName() + ".JfrEvents");
+            return (EventRecorder) clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the current runtime provides the Flight Recorder API.
+     *
+     * @return true, if the events can be recorded
+     */
+    public static boolean isSupported() {
+        return RECORDER != null;
+    }
+
+    /**
+     * Begins the exchange event.
+     *
+     * @return event handle or null, if the event is not recorded
+     */
+    public static Object beginExchange() {
+        return RECORDER == null ? null : RECORDER.beginExchange();
+    }
+
+    /**
+     * Ends the exchange event.
+     *
+     * @param event      event handle, may be null
+     * @param controller route of the controller
+     * @param route      matched method route, may be null
+     * @param method     request method
+     * @param path       request path
+     * @param status     response code, may be null if the response has not been sent
+     * @param read       number of bytes read from the request body, -1 if unknown
+     * @param written    number of bytes written to the response body, -1 if unknown
+     */
+    public static void endExchange(Object event,
+                                   String controller,
+                                   String route,
+                                   String method,
+                                   String path,
+                                   HttpCode status,
+                                   long read,
+                                   long written) {
+        if (event != null) {
+            RECORDER.endExchange(event, controller, route, method, path, status, read, written);
+        }
+    }
+
+    /**
+     * Begins the routing event.
+     *
+     * @return event handle or null, if the event is not recorded
+     */
+    public static Object beginRouting() {
+        return RECORDER == null ? null : RECORDER.beginRouting();
+    }
+
+    /**
+     * Ends the routing event.
+     *
+     * @param event  event handle, may be null
+     * @param path   request path
+     * @param route  matched method route or null, if the route was not found
+     * @param cached true, if the route was taken from the route cache
+     */
+    public static void endRouting(Object event, String path, String route, boolean cached) {
+        if (event != null) {
+            RECORDER.endRouting(event, path, route, cached);
+        }
+    }
+
+    /**
+     * Begins the pipeline action event.
+     *
+     * @return event handle or null, if the event is not recorded
+     */
+    public static Object beginAction() {
+        return RECORDER == null ? null : RECORDER.beginAction();
+    }
+
+    /**
+     * Ends the pipeline action event.
+     *
+     * @param event  event handle, may be null
+     * @param action name of the action
+     */
+    public static void endAction(Object event, String action) {
+        if (event != null) {
+            RECORDER.endAction(event, action);
+        }
+    }
+
+    /**
+     * Begins the controller invocation event.
+     *
+     * @return event handle or null, if the event is not recorded
+     */
+    public static Object beginInvocation() {
+        return RECORDER == null ? null : RECORDER.beginInvocation();
+    }
+
+    /**
+     * Ends the controller invocation event.
+     *
+     * @param event      event handle, may be null
+     * @param controller route of the controller
+     * @param route      matched method route
+     */
+    public static void endInvocation(Object event, String controller, String route) {
+        if (event != null) {
+            RECORDER.endInvocation(event, controller, route);
+        }
+    }
+
+    /**
+     * Begins the body write event.
+     *
+     * @return event handle or null, if the event is not recorded
+     */
+    public static Object beginBody() {
+        return RECORDER == null ? null : RECORDER.beginBody();
+    }
+
+    /**
+     * Ends the body write event.
+     *
+     * @param event    event handle, may be null
+     * @param status   response code
+     * @param bytes    number of bytes of the body, -1 if unknown
+     * @param streamed true, if the body was written by a stream handler
+     */
+    public static void endBody(Object event, HttpCode status, long bytes, boolean streamed) {
+        if (event != null) {
+            RECORDER.endBody(event, status, bytes, streamed);
+        }
+    }
+}
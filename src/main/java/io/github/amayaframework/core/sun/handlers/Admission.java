@@ -0,0 +1,65 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>The admission of an exchange, decided when the exchange is handed to the executor.</p>
+ * <p>The admission is completed exactly once, when the exchange is closed, and releases the place
+ * taken in the {@link ConcurrencyLimiter} with the latency counted from the moment of dispatch,
+ * so the time spent in the executor queue is seen by the limiter. The exchange is counted
+ * by the {@link DrainTracker} for the same period.</p>
+ */
+final class Admission {
+    private final ConcurrencyLimiter limiter;
+    private final DrainTracker drain;
+    private final boolean admitted;
+    private final long dispatched;
+    private final AtomicBoolean completed;
+    private volatile boolean claimed;
+
+    Admission(ConcurrencyLimiter limiter, DrainTracker drain) {
+        this.limiter = limiter;
+        this.drain = drain;
+        this.admitted = limiter == null || limiter.tryAcquire();
+        this.dispatched = System.nanoTime();
+        this.completed = new AtomicBoolean();
+        if (drain != null) {
+            drain.enter();
+        }
+    }
+
+    /**
+     * Checks if the exchange can be processed.
+     *
+     * @return true, if the exchange has been admitted, false if it must be rejected
+     */
+    boolean isAdmitted() {
+        return admitted;
+    }
+
+    boolean isClaimed() {
+        return claimed;
+    }
+
+    /**
+     * Makes the handler responsible for the completion of the admission.
+     */
+    void claim() {
+        claimed = true;
+    }
+
+    /**
+     * Completes the admission. Repeated calls are ignored.
+     */
+    void complete() {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        if (admitted && limiter != null) {
+            limiter.release(System.nanoTime() - dispatched);
+        }
+        if (drain != null) {
+            drain.exit();
+        }
+    }
+}
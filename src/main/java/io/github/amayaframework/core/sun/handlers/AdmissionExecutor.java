@@ -0,0 +1,92 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>An executor admitting exchanges at the moment the server dispatches them, before they wait
+ * in the queue of the wrapped executor. From that moment, exchanges are also counted as in flight
+ * for the drain, whichever handler processes them.</p>
+ * <p>The admission is passed to the {@link SunHandler} processing the exchange through the worker thread.
+ * Exchanges not admitted are not queued: they are run at once in the dispatching thread, where the handler
+ * answers them with 503, which also slows down the acceptance of new connections while the server is
+ * overloaded. The latency reported to the limiter includes the time spent in the queue. If the exchange does not reach
+ * a {@link SunHandler} (static resources, unknown contexts, malformed requests), the admission is completed
+ * when the task ends.</p>
+ */
+public class AdmissionExecutor implements Executor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionExecutor.class);
+    private static final ThreadLocal<Admission> CURRENT = new ThreadLocal<>();
+    private final Executor delegate;
+    private final ConcurrencyLimiter limiter;
+    private final DrainTracker drain;
+
+    /**
+     * Creates an executor.
+     *
+     * @param delegate executor running the exchanges, must be not null
+     * @param limiter  limiter of concurrently processed exchanges, or null if the number is not limited
+     * @param drain    counter of exchanges in flight, or null if the server is stopped without draining
+     */
+    public AdmissionExecutor(Executor delegate, ConcurrencyLimiter limiter, DrainTracker drain) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.limiter = limiter;
+        this.drain = drain;
+    }
+
+    /**
+     * Takes over the admission of the exchange run by the current thread. If the exchange has not been
+     * dispatched by an {@link AdmissionExecutor}, it is admitted now.
+     *
+     * @param limiter limiter used when the exchange has no admission
+     * @param drain   counter used when the exchange has no admission
+     * @return {@link Admission} instance, which must be completed by the caller
+     */
+    static Admission claim(ConcurrencyLimiter limiter, DrainTracker drain) {
+        Admission ret = CURRENT.get();
+        if (ret == null) {
+            return new Admission(limiter, drain);
+        }
+        ret.claim();
+        return ret;
+    }
+
+    private static void run(Runnable task, Admission admission) {
+        CURRENT.set(admission);
+        try {
+            task.run();
+        } finally {
+            CURRENT.remove();
+            if (!admission.isClaimed()) {
+                admission.complete();
+            }
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Admission admission = new Admission(limiter, drain);
+        if (!admission.isAdmitted()) {
+            // The task only reads the request and sends 503, it must not wait behind the admitted ones
+            try {
+                run(task, admission);
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to reject the exchange", e);
+            }
+            return;
+        }
+        try {
+            delegate.execute(() -> run(task, admission));
+        } catch (RuntimeException e) {
+            admission.complete();
+            throw e;
+        }
+    }
+
+    public Executor getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A bounded pool of threads isolating the exchanges of one or several controllers from the rest of the server.</p>
+ * <p>The server thread only hands the exchange over to the bulkhead, so a slow controller can exhaust
+ * its own threads and queue, but not the threads of other controllers. When both the threads and the queue
+ * are full, the exchange is either rejected with 503 or processed in the server thread, according to
+ * the {@link Policy}.</p>
+ * <p>The bulkhead is owned by the application, which must shut it down after the server is closed.</p>
+ */
+public class Bulkhead {
+    private static final long KEEP_ALIVE = 60;
+    private final String name;
+    private final int threads;
+    private final int queueCapacity;
+    private final Policy policy;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejected;
+
+    /**
+     * Creates a bulkhead. Threads are started on demand and stopped after a minute of idleness.
+     *
+     * @param name          name of the bulkhead, used in thread names and statistics
+     * @param threads       maximum number of threads, must be positive
+     * @param queueCapacity maximum number of exchanges waiting for a thread, 0 to hand them over only directly
+     * @param policy        action taken when the bulkhead is full
+     */
+    public Bulkhead(String name, int threads, int queueCapacity, Policy policy) {
+        if (threads <= 0 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid number of threads or queue capacity");
+        }
+        this.name = Objects.requireNonNull(name);
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.policy = Objects.requireNonNull(policy);
+        this.queue = queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+        this.pool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE,
+                TimeUnit.SECONDS,
+                queue,
+                new NamedFactory(name),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.pool.allowCoreThreadTimeOut(true);
+        this.rejected = new LongAdder();
+    }
+
+    public Bulkhead(String name, int threads, int queueCapacity) {
+        this(name, threads, queueCapacity, Policy.REJECT);
+    }
+
+    /**
+     * Hands the task over to the bulkhead. If the bulkhead is full, the task is run
+     * in the current thread or not run at all, according to the policy.
+     *
+     * @param task task to be executed
+     * @return true, if the task has been accepted or run, false if it has been rejected
+     */
+    public boolean tryExecute(Runnable task) {
+        try {
+            pool.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            if (policy == Policy.CALLER_RUNS && !pool.isShutdown()) {
+                task.run();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the maximum number of threads.
+     *
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the maximum number of exchanges waiting for a thread.
+     *
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the approximate number of threads processing exchanges.
+     *
+     * @return number of threads
+     */
+    public int getActiveThreads() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * Returns the number of exchanges waiting for a thread.
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the share of the bulkhead capacity (threads and queue) occupied now.
+     *
+     * @return value from 0 to 1
+     */
+    public double getSaturation() {
+        double used = getActiveThreads() + getQueueDepth();
+        return Math.min(1, used / (threads + queueCapacity));
+    }
+
+    /**
+     * Returns the number of exchanges that found the bulkhead full, including the ones run
+     * in the server thread by the {@link Policy#CALLER_RUNS} policy.
+     *
+     * @return number of exchanges
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the approximate number of exchanges processed by the threads of the bulkhead.
+     *
+     * @return number of exchanges
+     */
+    public long getCompleted() {
+        return pool.getCompletedTaskCount();
+    }
+
+    /**
+     * Stops accepting exchanges and waits for the accepted ones to be processed.
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @return true, if all accepted exchanges have been processed
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean shutdown(long timeout) throws InterruptedException {
+        pool.shutdown();
+        return pool.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * An action taken when both the threads and the queue of the bulkhead are occupied.
+     */
+    public enum Policy {
+        /**
+         * The exchange is answered with 503 and Retry-After.
+         */
+        REJECT,
+        /**
+         * The exchange is processed in the server thread, which slows down the acceptance of new exchanges.
+         */
+        CALLER_RUNS
+    }
+
+    private static final class NamedFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count;
+
+        private NamedFactory(String name) {
+            this.prefix = "amaya-bulkhead-" + name + "-";
+            this.count = new AtomicInteger();
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread ret = new Thread(runnable, prefix + count.incrementAndGet());
+            ret.setDaemon(true);
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An adaptive limit of the number of requests processed at the same time.</p>
+ * <p>The limit is recalculated once per window using the gradient between the long-term and
+ * the recent average latency: while the latency stays close to the long-term value, the limit grows,
+ * and when requests start to queue up and the latency increases, the limit shrinks proportionally.
+ * Requests exceeding the limit must be rejected immediately instead of waiting in the executor queue.</p>
+ */
+public class ConcurrencyLimiter {
+    private static final long DEFAULT_WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final double TOLERANCE = 2;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DECAY = 0.05;
+    private final AtomicInteger inFlight;
+    private final LongAdder rejected;
+    private final LongAdder latencySum;
+    private final LongAdder latencyCount;
+    private final AtomicLong nextUpdate;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long window;
+    private volatile int limit;
+    private volatile double estimate;
+    private volatile double baseline;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param initialLimit initial limit
+     * @param minLimit     minimum limit, must be positive
+     * @param maxLimit     maximum limit, must be not less than the minimum one
+     * @param window       time in milliseconds after which the limit is recalculated
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long window) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limit bounds");
+        }
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.inFlight = new AtomicInteger();
+        this.rejected = new LongAdder();
+        this.latencySum = new LongAdder();
+        this.latencyCount = new LongAdder();
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.window = TimeUnit.MILLISECONDS.toNanos(window);
+        this.nextUpdate = new AtomicLong(System.nanoTime() + this.window);
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.estimate = limit;
+    }
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, TimeUnit.NANOSECONDS.toMillis(DEFAULT_WINDOW));
+    }
+
+    public ConcurrencyLimiter() {
+        this(20, 1, 1000);
+    }
+
+    /**
+     * Tries to occupy a place for a new request.
+     *
+     * @return true, if the request can be processed, false if it must be rejected
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the place occupied by the completed request.
+     *
+     * @param latency processing time of the request in nanoseconds
+     */
+    public void release(long latency) {
+        int current = inFlight.getAndDecrement();
+        latencySum.add(latency);
+        latencyCount.increment();
+        long now = System.nanoTime();
+        long next = nextUpdate.get();
+        if (now - next >= 0 && nextUpdate.compareAndSet(next, now + window)) {
+            update(current);
+        }
+    }
+
+    private void update(int current) {
+        long count = latencyCount.sumThenReset();
+        long sum = latencySum.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        double recent = (double) sum / count;
+        if (baseline == 0 || recent < baseline) {
+            baseline = recent;
+        } else {
+            baseline += (recent - baseline) * BASELINE_DECAY;
+        }
+        double gradient = Math.max(0.5, Math.min(1, TOLERANCE * baseline / recent));
+        double target = estimate * gradient;
+        if (gradient >= 1 && current * 2 >= limit) {
+            target += Math.sqrt(estimate);
+        }
+        estimate += (target - estimate) * SMOOTHING;
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate));
+        limit = (int) estimate;
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return number of requests
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of requests being processed now.
+     *
+     * @return number of requests
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the total number of rejected requests.
+     *
+     * @return number of requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
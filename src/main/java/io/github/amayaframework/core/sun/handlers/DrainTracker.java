@@ -0,0 +1,87 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A counter of exchanges in flight, used to drain the server before it is stopped.</p>
+ * <p>The counter is striped, so handler threads do not contend on a single memory location. As the sum of
+ * a striped counter is not an atomic snapshot, the server is considered idle only after the counter has been
+ * seen at zero twice in a row. Once the drain has started, responses are sent with Connection: close,
+ * so clients and load balancers move their keep-alive connections elsewhere.</p>
+ */
+public class DrainTracker {
+    private static final long POLL_INTERVAL = 10;
+    private final LongAdder inFlight;
+    private volatile boolean draining;
+
+    public DrainTracker() {
+        this.inFlight = new LongAdder();
+    }
+
+    /**
+     * Registers the start of an exchange.
+     */
+    public void enter() {
+        inFlight.increment();
+    }
+
+    /**
+     * Registers the completion of an exchange.
+     */
+    public void exit() {
+        inFlight.decrement();
+    }
+
+    /**
+     * Returns the approximate number of exchanges in flight.
+     *
+     * @return number of exchanges
+     */
+    public long getInFlight() {
+        return Math.max(0, inFlight.sum());
+    }
+
+    /**
+     * Marks the server as draining.
+     */
+    public void startDrain() {
+        draining = true;
+    }
+
+    /**
+     * Checks if the server is draining.
+     *
+     * @return true, if the drain has started
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Waits until there are no exchanges in flight or the timeout elapses.
+     *
+     * @param timeout maximum time to wait in milliseconds
+     * @return true, if all exchanges have been completed
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean awaitIdle(long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        boolean idle = false;
+        while (true) {
+            if (inFlight.sum() <= 0) {
+                if (idle) {
+                    return true;
+                }
+                idle = true;
+            } else {
+                idle = false;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return idle;
+            }
+            Thread.sleep(Math.min(POLL_INTERVAL, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A per-client limit of the request rate, checked before the request is routed.</p>
+ * <p>Clients are identified by the remote address or by the value of the specified request header.
+ * Each client has a token bucket kept as a single theoretical arrival time (generic cell rate algorithm),
+ * which is updated with a compare-and-set, so the check takes no locks and allocates nothing for known clients.
+ * When the number of clients reaches the maximum, the buckets of idle clients, which are full again,
+ * are removed, as removing them does not change the decisions. Each new client checks a bounded number of
+ * buckets, continuing the sweep where the previous one stopped. If all tracked clients are active, new clients
+ * share a fixed set of buckets chosen by the remote address, so a client inventing header values only
+ * competes with the clients sharing its address slot.</p>
+ */
+public class RateLimiter {
+    private static final int SWEEP_SIZE = 64;
+    private static final int OVERFLOW_SIZE = 256;
+    private final ConcurrentMap<Object, AtomicLong> buckets;
+    private final AtomicLong[] overflow;
+    private final AtomicBoolean evicting;
+    private final LongAdder rejected;
+    private final long interval;
+    private final long tolerance;
+    private final int maxClients;
+    private final String header;
+    private Iterator<AtomicLong> sweep;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param rate       number of requests per second allowed to each client, must be positive
+     * @param burst      number of requests a client can make at once after being idle, must be positive
+     * @param maxClients maximum number of tracked clients, must be positive
+     * @param header     request header identifying the client, or null to use the remote address
+     */
+    public RateLimiter(double rate, int burst, int maxClients, String header) {
+        if (rate <= 0 || burst <= 0 || maxClients <= 0) {
+            throw new IllegalArgumentException("Rate, burst and number of clients must be positive");
+        }
+        this.buckets = new ConcurrentHashMap<>();
+        this.evicting = new AtomicBoolean();
+        this.rejected = new LongAdder();
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        this.tolerance = interval * burst;
+        this.overflow = new AtomicLong[OVERFLOW_SIZE];
+        long start = System.nanoTime() - tolerance;
+        for (int i = 0; i < OVERFLOW_SIZE; ++i) {
+            overflow[i] = new AtomicLong(start);
+        }
+        this.maxClients = maxClients;
+        this.header = header;
+    }
+
+    public RateLimiter(double rate, int burst) {
+        this(rate, burst, 65536, null);
+    }
+
+    private static Object getAddress(HttpExchange exchange) {
+        InetSocketAddress address = exchange.getRemoteAddress();
+        return address.getAddress() == null ? address.getHostString() : address.getAddress();
+    }
+
+    /**
+     * Tries to take a token for the client that sent the exchange.
+     *
+     * @param exchange exchange to be checked
+     * @return 0, if the request can be processed, otherwise the time in nanoseconds until the client
+     * will be allowed to make a request
+     */
+    public long tryAcquire(HttpExchange exchange) {
+        Object address = getAddress(exchange);
+        if (header == null) {
+            return tryAcquire(address, address);
+        }
+        String key = exchange.getRequestHeaders().getFirst(header);
+        return tryAcquire(key == null ? address : key, address);
+    }
+
+    /**
+     * Tries to take a token for the specified client.
+     *
+     * @param key client identifier
+     * @return 0, if the request can be processed, otherwise the time in nanoseconds until the client
+     * will be allowed to make a request
+     */
+    public long tryAcquire(Object key) {
+        return tryAcquire(key, key);
+    }
+
+    private AtomicLong getOverflow(Object fallback) {
+        int hash = fallback.hashCode();
+        return overflow[(hash ^ (hash >>> 16)) & (OVERFLOW_SIZE - 1)];
+    }
+
+    private long tryAcquire(Object key, Object fallback) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                evict(now);
+            }
+            bucket = buckets.size() < maxClients ?
+                    buckets.computeIfAbsent(key, k -> new AtomicLong(now - tolerance)) :
+                    getOverflow(fallback);
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now - tolerance) + interval;
+            long excess = next - now;
+            if (excess > 0) {
+                rejected.increment();
+                return excess;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long idle = now - tolerance;
+            Iterator<AtomicLong> iterator = sweep;
+            for (int i = 0; i < SWEEP_SIZE; ++i) {
+                if (iterator == null || !iterator.hasNext()) {
+                    iterator = buckets.values().iterator();
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                }
+                if (iterator.next().get() - idle <= 0) {
+                    iterator.remove();
+                }
+            }
+            sweep = iterator;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Returns the number of tracked clients.
+     *
+     * @return number of clients
+     */
+    public int getClients() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the total number of rejected requests.
+     *
+     * @return number of requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,262 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.core.sun.util.RadixTree;
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>A bounded cache of encoded responses, keyed by the raw request path and query.</p>
+ * <p>Only responses to paths covered by a rule are cached. The rule with the longest path that is a prefix
+ * of the request path determines the time to live of the entry, a zero time excludes the paths from caching.
+ * Expired entries are dropped on access. When the number of entries reaches the maximum, the entries
+ * not used since the previous eviction are removed (second chance policy). If all entries have been used,
+ * new responses are not cached until some entries become unused, so a stream of distinct keys cannot
+ * push the frequently used entries out.</p>
+ * <p>The cache is shared by all clients, so requests carrying credentials ({@code Authorization},
+ * {@code Cookie} or other identity headers added to the cache) are neither served from the cache nor stored in it.</p>
+ */
+public class ResponseCache {
+    // Keeps the expiration time far enough from overflow for the wrapping comparison with System.nanoTime
+    private static final long MAX_TTL = Long.MAX_VALUE / 2;
+    private final ConcurrentMap<String, Entry> entries;
+    private final RadixTree<Long> rules;
+    private final List<String> identityHeaders;
+    private final AtomicBoolean evicting;
+    private final int maxSize;
+
+    /**
+     * Creates a cache without rules.
+     *
+     * @param maxSize maximum number of entries, must be positive
+     */
+    public ResponseCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.entries = new ConcurrentHashMap<>();
+        this.rules = new RadixTree<>();
+        this.identityHeaders = new ArrayList<>();
+        this.identityHeaders.add(HttpHeaders.AUTHORIZATION);
+        this.identityHeaders.add(HttpHeaders.COOKIE);
+        this.evicting = new AtomicBoolean();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the key of the cache entry for the specified request uri.
+     *
+     * @param uri request uri
+     * @return raw path followed by the raw query, if there is one
+     */
+    public static String getKey(URI uri) {
+        String path = uri.getRawPath();
+        String query = uri.getRawQuery();
+        return query == null ? path : path + "?" + query;
+    }
+
+    /**
+     * Sets the time to live of responses to the specified path and all paths starting with it.
+     * Must not be called after the server is started.
+     *
+     * @param path path prefix, must be not null
+     * @param ttl  time to live in milliseconds, 0 to exclude the paths from caching
+     */
+    public void addRule(String path, long ttl) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("Time to live must be non-negative");
+        }
+        rules.put(Objects.requireNonNull(path), ttl);
+    }
+
+    /**
+     * Adds the request header identifying the client, in addition to Authorization and Cookie.
+     * Requests with the header bypass the cache. Must not be called after the server is started.
+     *
+     * @param name header name, must be not null
+     */
+    public void addIdentityHeader(String name) {
+        identityHeaders.add(Objects.requireNonNull(name));
+    }
+
+    /**
+     * Checks if the request carries one of the identity headers, so its response may be personal
+     * and must bypass the shared cache.
+     *
+     * @param headers request headers
+     * @return true, if the request must bypass the cache
+     */
+    public boolean isPersonal(HeaderMap headers) {
+        for (String name : identityHeaders) {
+            if (headers.getFirst(name) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the time to live of responses to the specified path.
+     *
+     * @param path raw request path
+     * @return time to live in milliseconds, 0 if the responses must not be cached
+     */
+    public long getTtl(String path) {
+        Long ret = rules.findLongestPrefix(path);
+        return ret == null ? 0 : ret;
+    }
+
+    /**
+     * Checks if there is a rule that allows to cache responses to the specified path.
+     *
+     * @param path raw request path
+     * @return true, if the responses can be cached
+     */
+    public boolean isCached(String path) {
+        return getTtl(path) > 0;
+    }
+
+    /**
+     * Finds the actual entry for the specified key.
+     *
+     * @param key request path and query
+     * @return {@link Entry} instance or null, if there is no entry or it has expired
+     */
+    public Entry get(String key) {
+        Entry ret = entries.get(key);
+        if (ret == null) {
+            return null;
+        }
+        if (ret.expires - System.nanoTime() <= 0) {
+            entries.remove(key, ret);
+            return null;
+        }
+        if (!ret.used) {
+            ret.used = true;
+        }
+        return ret;
+    }
+
+    /**
+     * Puts the entry for the specified key, evicting unused entries if the cache is full.
+     * If the cache is still full, the entry is not stored.
+     *
+     * @param key     request path and query
+     * @param code    response code
+     * @param headers pairs of header names and values
+     * @param body    encoded body
+     * @param tag     quoted strong entity tag of the body
+     * @param ttl     time to live in milliseconds, must be positive
+     * @return created {@link Entry}
+     */
+    public Entry put(String key, HttpCode code, String[] headers, byte[] body, String tag, long ttl) {
+        long expires = System.nanoTime() + Math.min(TimeUnit.MILLISECONDS.toNanos(ttl), MAX_TTL);
+        Entry ret = new Entry(code, headers, body, tag, expires);
+        if (entries.size() >= maxSize) {
+            evict();
+            if (entries.size() >= maxSize) {
+                return ret;
+            }
+        }
+        entries.put(key, ret);
+        return ret;
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.used && entry.expires - now > 0) {
+                    entry.used = false;
+                } else {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Removes the entry for the specified key.
+     *
+     * @param key request path and query
+     */
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static final class Entry {
+        private final HttpCode code;
+        private final String[] headers;
+        private final byte[] body;
+        private final String tag;
+        private final long expires;
+        private volatile boolean used;
+
+        Entry(HttpCode code, String[] headers, byte[] body, String tag, long expires) {
+            this.code = code;
+            this.headers = headers;
+            this.body = body;
+            this.tag = tag;
+            this.expires = expires;
+        }
+
+        public HttpCode getCode() {
+            return code;
+        }
+
+        /**
+         * Returns the response headers as pairs of names and values. The array must not be modified.
+         *
+         * @return array of header names and values
+         */
+        public String[] getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Returns the encoded body. The array must not be modified.
+         *
+         * @return byte array
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * Returns the strong entity tag built from the content of the body.
+         *
+         * @return quoted tag
+         */
+        public String getTag() {
+            return tag;
+        }
+    }
+}
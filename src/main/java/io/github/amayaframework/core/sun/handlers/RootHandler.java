@@ -0,0 +1,49 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.core.sun.util.CannedResponse;
+import io.github.amayaframework.core.sun.util.RadixTree;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+import io.github.amayaframework.server.interfaces.HttpHandler;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * <p>A handler registered as the only server context, which dispatches exchanges to the handlers
+ * of controllers and resources.</p>
+ * <p>The handler is chosen by the longest path that is a prefix of the request path, as the server
+ * does when choosing a context, but the cost of the choice does not depend on the number of handlers.</p>
+ */
+public class RootHandler implements HttpHandler {
+    private static final CannedResponse NOT_FOUND = new CannedResponse(HttpCode.NOT_FOUND);
+    private final RadixTree<HttpHandler> handlers;
+
+    public RootHandler() {
+        this.handlers = new RadixTree<>();
+    }
+
+    /**
+     * Adds the handler for the specified path. Must not be called after the server is started.
+     *
+     * @param path    path of the handler
+     * @param handler handler to be added
+     */
+    public void addHandler(String path, HttpHandler handler) {
+        handlers.put(Objects.requireNonNull(path), Objects.requireNonNull(handler));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        HttpHandler handler = handlers.findLongestPrefix(exchange.getRequestURI().getPath());
+        if (handler != null) {
+            handler.handle(exchange);
+            return;
+        }
+        try {
+            NOT_FOUND.send(exchange);
+        } finally {
+            exchange.close();
+        }
+    }
+}
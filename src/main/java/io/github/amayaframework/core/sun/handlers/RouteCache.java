@@ -0,0 +1,128 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.core.pipeline.RouteData;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>A bounded cache of resolved routes of one controller, keyed by the request method and the raw path.</p>
+ * <p>Each entry holds the route data and the path parameters extracted from the path, so a repeated request
+ * skips method parsing, path normalization, route search and parameter extraction.
+ * When the number of entries for a method reaches the maximum, the entries not used since
+ * the previous eviction are removed (second chance policy).</p>
+ */
+public class RouteCache {
+    private final ConcurrentMap<String, ConcurrentMap<String, Entry>> methods;
+    private final AtomicBoolean evicting;
+    private final int maxSize;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize maximum number of entries for each request method, must be positive
+     */
+    public RouteCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.methods = new ConcurrentHashMap<>();
+        this.evicting = new AtomicBoolean();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Finds the entry for the specified request.
+     *
+     * @param method raw request method
+     * @param path   raw request path
+     * @return {@link Entry} instance or null, if there is no entry
+     */
+    public Entry get(String method, String path) {
+        ConcurrentMap<String, Entry> entries = methods.get(method);
+        if (entries == null) {
+            return null;
+        }
+        Entry ret = entries.get(path);
+        if (ret != null && !ret.used) {
+            ret.used = true;
+        }
+        return ret;
+    }
+
+    /**
+     * Puts the entry for the specified request, evicting unused entries if the cache is full.
+     *
+     * @param method     raw request method
+     * @param path       raw request path
+     * @param data       resolved route data
+     * @param parameters extracted path parameters, may be null if they could not be extracted
+     * @return created {@link Entry}
+     */
+    public Entry put(String method, String path, RouteData data, Map<String, Object> parameters) {
+        ConcurrentMap<String, Entry> entries = methods.computeIfAbsent(method, k -> new ConcurrentHashMap<>());
+        if (entries.size() >= maxSize) {
+            evict(entries);
+        }
+        Entry ret = new Entry(data, parameters == null ? null : Collections.unmodifiableMap(parameters));
+        entries.put(path, ret);
+        return ret;
+    }
+
+    private void evict(ConcurrentMap<String, Entry> entries) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.used) {
+                    entry.used = false;
+                } else {
+                    iterator.remove();
+                }
+            }
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        methods.clear();
+    }
+
+    public static final class Entry {
+        private final RouteData data;
+        private final Map<String, Object> parameters;
+        private volatile boolean used;
+
+        Entry(RouteData data, Map<String, Object> parameters) {
+            this.data = data;
+            this.parameters = parameters;
+        }
+
+        public RouteData getData() {
+            return data;
+        }
+
+        /**
+         * Returns the path parameters extracted when the entry was created.
+         *
+         * @return unmodifiable map or null, if parameters must be extracted again
+         */
+        public Map<String, Object> getParameters() {
+            return parameters;
+        }
+    }
+}
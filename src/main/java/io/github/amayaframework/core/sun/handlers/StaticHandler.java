@@ -0,0 +1,226 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.core.sun.util.ContentHeaders;
+import io.github.amayaframework.core.sun.util.FileIndex;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.core.sun.util.ResponseEncoder;
+import io.github.amayaframework.http.ContentType;
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+import io.github.amayaframework.server.interfaces.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * <p>A handler serving static files from the specified directory.</p>
+ * <p>Supports GET and HEAD requests, conditional requests with If-None-Match and If-Modified-Since,
+ * and single byte ranges with Range and If-Range. The metadata of files is taken from {@link FileIndex},
+ * and the content is transferred with {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * which avoids copying through the heap when the response stream of the exchange is a channel.</p>
+ */
+public class StaticHandler implements HttpHandler {
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+    private static final String BYTES_UNIT = "bytes";
+    private static final String RANGE_PREFIX = "bytes=";
+    private final FileIndex index;
+    private final int length;
+
+    /**
+     * Creates a handler for the specified route.
+     *
+     * @param route           route of the context the handler is registered with
+     * @param root            directory containing files
+     * @param refreshInterval time in milliseconds during which the file metadata is considered actual
+     */
+    public StaticHandler(String route, Path root, long refreshInterval) {
+        this.index = new FileIndex(root, refreshInterval);
+        this.length = route.length();
+    }
+
+    private static void reject(HttpExchange exchange, HttpCode code) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, ContentHeaders.get(ContentType.PLAIN, CHARSET));
+        ResponseEncoder.send(exchange, CHARSET, code, code.getMessage());
+    }
+
+    private static boolean isNotModified(HeaderMap headers, FileIndex.Entry entry) {
+        String match = headers.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (match != null) {
+            return match.equals("*") || match.contains(entry.getTag());
+        }
+        String since = headers.getFirst(HttpHeaders.IF_MODIFIED_SINCE);
+        if (since == null) {
+            return false;
+        }
+        try {
+            long time = ZonedDateTime.parse(since, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return entry.getLastModified() / 1000 <= time / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean isRangeApplicable(HeaderMap headers, FileIndex.Entry entry) {
+        String condition = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (condition == null) {
+            return true;
+        }
+        if (condition.startsWith("\"")) {
+            return condition.equals(entry.getTag());
+        }
+        return condition.equals(entry.getLastModifiedHeader());
+    }
+
+    /**
+     * Parses a single byte range. Returns null if the range cannot be parsed or contains several ranges,
+     * in which case the whole file is sent, and an empty array if the range cannot be satisfied.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith(RANGE_PREFIX) || header.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = header.indexOf('-', RANGE_PREFIX.length());
+        if (dash < 0) {
+            return null;
+        }
+        String first = header.substring(RANGE_PREFIX.length(), dash).trim();
+        String last = header.substring(dash + 1).trim();
+        long start;
+        long end;
+        try {
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (start < 0 || end < start) {
+            return null;
+        }
+        if (start >= size) {
+            return new long[0];
+        }
+        return new long[]{start, Math.min(end, size - 1)};
+    }
+
+    private static void transfer(HttpExchange exchange, Path path, long position, long count) throws IOException {
+        OutputStream stream = exchange.getResponseBody();
+        WritableByteChannel target = stream instanceof WritableByteChannel ?
+                (WritableByteChannel) stream :
+                Channels.newChannel(stream);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (count > 0) {
+                long sent = channel.transferTo(position, count, target);
+                if (sent <= 0) {
+                    throw new IOException("File was truncated during transfer");
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        boolean head = method.equals("HEAD");
+        if (!head && !method.equals("GET")) {
+            exchange.getResponseHeaders().set(HttpHeaders.ALLOW, "GET, HEAD");
+            reject(exchange, HttpCode.METHOD_NOT_ALLOWED);
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        String name = path.length() > length ? path.substring(length) : "";
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        FileIndex.Entry entry;
+        try {
+            entry = index.get(name);
+        } catch (InvalidPathException e) {
+            entry = null;
+        }
+        if (entry == null) {
+            reject(exchange, HttpCode.NOT_FOUND);
+            return;
+        }
+        HeaderMap request = exchange.getRequestHeaders();
+        HeaderMap response = exchange.getResponseHeaders();
+        response.set(HttpHeaders.ETAG, entry.getTag());
+        response.set(HttpHeaders.LAST_MODIFIED, entry.getLastModifiedHeader());
+        response.set(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+        if (isNotModified(request, entry)) {
+            exchange.sendResponseHeaders(HttpCode.NOT_MODIFIED, -1);
+            return;
+        }
+        long size = entry.getSize();
+        long start = 0;
+        long count = size;
+        HttpCode code = HttpCode.OK;
+        String range = request.getFirst(HttpHeaders.RANGE);
+        if (range != null && isRangeApplicable(request, entry)) {
+            long[] parsed = parseRange(range, size);
+            if (parsed != null && parsed.length == 0) {
+                response.set(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " */" + size);
+                reject(exchange, HttpCode.REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (parsed != null) {
+                start = parsed[0];
+                count = parsed[1] - start + 1;
+                code = HttpCode.PARTIAL_CONTENT;
+                response.set(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + parsed[1] + "/" + size);
+            }
+        }
+        response.set(HttpHeaders.CONTENT_TYPE, entry.getType());
+        if (head) {
+            // The server does not set the length of HEAD responses, as they have no body
+            response.set(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+            exchange.sendResponseHeaders(code, -1);
+            return;
+        }
+        if (count == 0) {
+            exchange.sendResponseHeaders(code, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(code, count);
+        transfer(exchange, entry.getPath(), start, count);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            serve(exchange);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the index of file metadata used by this handler.
+     *
+     * @return {@link FileIndex} instance
+     */
+    public FileIndex getIndex() {
+        return index;
+    }
+}
@@ -3,33 +3,236 @@ package io.github.amayaframework.core.sun.handlers;
 import io.github.amayaframework.core.config.AmayaConfig;
 import io.github.amayaframework.core.controllers.Controller;
 import io.github.amayaframework.core.handlers.PipelineHandler;
-import io.github.amayaframework.core.handlers.Session;
+import io.github.amayaframework.core.sun.SunOptions;
+import io.github.amayaframework.core.sun.events.SunEvents;
+import io.github.amayaframework.core.sun.metrics.CountingInputStream;
+import io.github.amayaframework.core.sun.metrics.CountingOutputStream;
+import io.github.amayaframework.core.sun.metrics.SunMetrics;
+import io.github.amayaframework.core.sun.util.CannedResponse;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.http.HttpCode;
 import io.github.amayaframework.server.interfaces.HttpExchange;
 import io.github.amayaframework.server.interfaces.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>A class representing the sun handler used inside the server. Built on pipelines.</p>
  * <p>The http connection processing scheme is quite simple: first, the input pipeline is triggered,
  * resulting in an HttpResponse. Then the output pipeline is triggered, the purpose of which is to
  * process and verify the received HttpResponse. After that, the server receives a response.</p>
+ * <p>If the controller defers its response with a {@link java.util.concurrent.CompletionStage}, the handler
+ * returns immediately, and the output pipeline, accounting and closing of the exchange happen when the stage
+ * completes, so no thread waits for the controller's downstream calls.</p>
+ * <p>If the number of concurrently processed requests is limited, the exchange is admitted when the server
+ * dispatches it to the executor (see {@link AdmissionExecutor}) and rejected here with 503 if the limit
+ * was exceeded at that moment.</p>
+ * <p>If the server is drained on close, each exchange is counted from its dispatch until it is closed,
+ * and responses sent during the drain ask the client to close the connection.</p>
+ * <p>If the controller is isolated in a {@link Bulkhead}, the server thread only checks the request rate and
+ * hands the exchange over to the bulkhead; the exchanges the bulkhead cannot accept are answered with 503.</p>
+ * <p>While a flight recording is running, the handling of each exchange is recorded as an event
+ * of {@link SunEvents}, together with the stages of the session.</p>
  */
 public class SunHandler implements HttpHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SunHandler.class);
+    private static final CannedResponse OVERLOADED = new CannedResponse(
+            HttpCode.SERVICE_UNAVAILABLE,
+            HttpHeaders.RETRY_AFTER,
+            "1"
+    );
+    private static final CannedResponse RATE_LIMITED = new CannedResponse(HttpCode.TOO_MANY_REQUESTS);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
     private final PipelineHandler handler;
     private final Controller controller;
     private final AmayaConfig config;
+    private final SunOptions options;
+    private final ConcurrencyLimiter limiter;
+    private final RateLimiter rateLimiter;
+    private final SunMetrics metrics;
+    private final DrainTracker drain;
+    private final RouteCache cache;
+    private final Bulkhead bulkhead;
+    private final ThreadLocal<SunSession> sessions;
 
-    public SunHandler(Controller controller, PipelineHandler handler, AmayaConfig config) {
+    public SunHandler(Controller controller, PipelineHandler handler, AmayaConfig config, SunOptions options) {
         this.controller = controller;
         this.handler = handler;
         this.config = config;
+        this.options = options;
+        this.limiter = options.getLimiter();
+        this.rateLimiter = options.getRateLimiter();
+        this.metrics = options.getMetrics();
+        this.drain = options.getDrainTracker();
+        int size = options.getRouteCacheSize();
+        this.cache = size > 0 ? new RouteCache(size) : null;
+        this.bulkhead = options.getBulkheads().get(controller.getRoute());
+        this.sessions = options.isPooled() ?
+                ThreadLocal.withInitial(() -> new SunSession(controller, config, options, cache)) :
+                null;
+    }
+
+    public SunHandler(Controller controller, PipelineHandler handler, AmayaConfig config) {
+        this(controller, handler, config, new SunOptions());
+    }
+
+    private void finish(HttpExchange exchange,
+                        SunSession session,
+                        int generation,
+                        long start,
+                        CountingInputStream input,
+                        CountingOutputStream output,
+                        Admission admission,
+                        Object event) {
+        String route = null;
+        if (session.isValid(generation)) {
+            route = session.getMatchedRoute();
+            session.cleanup();
+            if (sessions != null) {
+                session.release();
+            }
+        } else {
+            // The exchange and its accounting are still completed, as they do not depend on the session
+            LOGGER.error("Session has been reused before its exchange was completed");
+        }
+        try {
+            if (metrics != null) {
+                metrics.bytesTransferred(input.getCount(), output.getCount());
+                metrics.requestFinished(controller.getRoute(), route, System.nanoTime() - start);
+            }
+        } finally {
+            exchange.close();
+            if (admission != null) {
+                admission.complete();
+            }
+            if (event != null) {
+                endEvent(event, exchange, route, input.getCount(), output.getCount());
+            }
+        }
+    }
+
+    private void endEvent(Object event, HttpExchange exchange, String route, long read, long written) {
+        SunEvents.endExchange(
+                event,
+                controller.getRoute(),
+                route,
+                exchange.getRequestMethod(),
+                exchange.getRequestURI().getPath(),
+                exchange.getResponseCode(),
+                read,
+                written
+        );
+    }
+
+    private void reject(HttpExchange exchange, CannedResponse response, Object event) throws IOException {
+        if (metrics != null) {
+            metrics.requestRejected(response.getCode());
+        }
+        try {
+            response.send(exchange);
+        } finally {
+            exchange.close();
+            if (event != null) {
+                endEvent(event, exchange, null, -1, -1);
+            }
+        }
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        Session session = new SunSession(exchange, controller, config);
-        handler.handle(session);
-        exchange.close();
+        Object event = SunEvents.beginExchange();
+        if (drain != null && drain.isDraining()) {
+            exchange.getResponseHeaders().set(HttpHeaders.CONNECTION, "close");
+        }
+        if (rateLimiter != null) {
+            long wait = rateLimiter.tryAcquire(exchange);
+            if (wait > 0) {
+                long seconds = (wait + SECOND - 1) / SECOND;
+                exchange.getResponseHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+                reject(exchange, RATE_LIMITED, event);
+                return;
+            }
+        }
+        Admission admission = limiter == null && drain == null ? null : AdmissionExecutor.claim(limiter, drain);
+        if (admission != null && !admission.isAdmitted()) {
+            admission.complete();
+            reject(exchange, OVERLOADED, event);
+            return;
+        }
+        if (bulkhead == null) {
+            process(exchange, admission, event);
+            return;
+        }
+        if (!bulkhead.tryExecute(() -> dispatch(exchange, admission, event))) {
+            if (admission != null) {
+                admission.complete();
+            }
+            reject(exchange, OVERLOADED, event);
+        }
+    }
+
+    private SunSession openSession(HttpExchange exchange) {
+        if (sessions == null) {
+            return new SunSession(exchange, controller, config, options, cache);
+        }
+        SunSession ret = sessions.get();
+        ret.open(exchange);
+        return ret;
+    }
+
+    private void dispatch(HttpExchange exchange, Admission admission, Object event) {
+        try {
+            process(exchange, admission, event);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Exchange failed in bulkhead " + bulkhead.getName(), e);
+            exchange.close();
+        }
+    }
+
+    private void process(HttpExchange exchange, Admission admission, Object event) throws IOException {
+        SunSession session;
+        try {
+            session = openSession(exchange);
+        } catch (RuntimeException e) {
+            exchange.close();
+            if (admission != null) {
+                admission.complete();
+            }
+            throw e;
+        }
+        int generation = session.getGeneration();
+        long start = metrics == null ? 0 : System.nanoTime();
+        CountingInputStream input = null;
+        CountingOutputStream output = null;
+        if (metrics != null) {
+            metrics.requestStarted();
+        }
+        if (metrics != null || event != null) {
+            input = new CountingInputStream(exchange.getRequestBody());
+            output = new CountingOutputStream(exchange.getResponseBody());
+            exchange.setStreams(input, output);
+        }
+        boolean suspended = false;
+        try {
+            handler.handle(session);
+            suspended = session.isSuspended();
+        } finally {
+            if (!suspended) {
+                finish(exchange, session, generation, start, input, output, admission, event);
+            }
+        }
+        if (!suspended) {
+            return;
+        }
+        if (sessions != null) {
+            // The suspended session belongs to its exchange until completion, the thread gets a new one
+            sessions.remove();
+        }
+        CountingInputStream in = input;
+        CountingOutputStream out = output;
+        session.resume(() -> finish(exchange, session, generation, start, in, out, admission, event));
     }
 }
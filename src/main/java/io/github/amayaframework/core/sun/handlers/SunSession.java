@@ -8,77 +8,474 @@ import io.github.amayaframework.core.contexts.Responses;
 import io.github.amayaframework.core.controllers.Controller;
 import io.github.amayaframework.core.handlers.Session;
 import io.github.amayaframework.core.methods.HttpMethod;
+import io.github.amayaframework.core.pipeline.PipelineAction;
 import io.github.amayaframework.core.pipeline.RouteData;
 import io.github.amayaframework.core.routers.MethodRouter;
 import io.github.amayaframework.core.routes.MethodRoute;
+import io.github.amayaframework.core.sun.SunOptions;
 import io.github.amayaframework.core.sun.actions.SunRequestData;
 import io.github.amayaframework.core.sun.actions.SunResponseData;
+import io.github.amayaframework.core.sun.events.SunEvents;
+import io.github.amayaframework.core.sun.metrics.SunMetrics;
+import io.github.amayaframework.core.sun.util.BodyTooLargeException;
+import io.github.amayaframework.core.sun.util.ContentHeaders;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.core.sun.util.ResponseEncoder;
 import io.github.amayaframework.core.util.ParseUtil;
 import io.github.amayaframework.http.ContentType;
 import io.github.amayaframework.http.HttpCode;
-import io.github.amayaframework.http.HttpUtil;
 import io.github.amayaframework.server.interfaces.HttpExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * <p>A session handling one http exchange.</p>
+ * <p>A session can be reused for several exchanges one after another: it is opened with
+ * {@link #open(HttpExchange)} and released with {@link #release()}. Each opening increases the
+ * generation of the session, and any use of a released session fails, so code holding a stale
+ * reference is detected instead of silently affecting another exchange. Deferred responses check
+ * the generation they were suspended in before they are sent.</p>
+ * <p>If the controller returns a response whose body is a {@link CompletionStage}, the session is suspended:
+ * the handling thread is freed, and the output pipeline is executed when the stage completes, with
+ * the result of the stage as the body, or as the whole response, if it is an {@link HttpResponse}.
+ * If the stage does not complete within {@link SunOptions#getDeferredTimeout()}, the exchange is answered
+ * with 503 and the later result of the stage is ignored.</p>
+ * <p>Before the input pipeline, the session executes {@link SunOptions#getInputActions()}. If one of them
+ * answers the exchange itself (for example, from the response cache), both pipelines are skipped.</p>
+ */
 public class SunSession implements Session {
-    private final HttpExchange exchange;
+    private static final Logger LOGGER = LoggerFactory.getLogger(SunSession.class);
     private final MethodRouter router;
+    private final String controllerRoute;
     private final int length;
     private final AmayaConfig config;
+    private final SunOptions options;
+    private final List<PipelineAction<SunRequestData, SunRequestData>> inputActions;
+    private final RouteCache cache;
+    private final SunMetrics metrics;
+    private HttpExchange exchange;
+    private String matchedRoute;
+    private SunRequestData requestData;
+    private CompletionStage<?> pending;
+    private HttpResponse pendingResponse;
+    private Action<Object, Object> pendingHandler;
+    private int generation;
+    private boolean isResponded;
     private boolean isCompleted;
 
-    public SunSession(HttpExchange exchange, Controller controller, AmayaConfig config) {
-        this.exchange = exchange;
+    /**
+     * Creates a released session, which must be opened before use.
+     *
+     * @param controller controller handling the exchanges
+     * @param config     amaya config
+     * @param options    sun options
+     * @param cache      route cache of the controller, may be null
+     */
+    public SunSession(Controller controller, AmayaConfig config, SunOptions options, RouteCache cache) {
         router = controller.getRouter();
+        controllerRoute = controller.getRoute();
         length = controller.getRoute().length();
         this.config = config;
+        this.options = options;
+        this.inputActions = options.getInputActions();
+        this.cache = cache;
+        this.metrics = options.getMetrics();
+    }
+
+    public SunSession(HttpExchange exchange,
+                      Controller controller,
+                      AmayaConfig config,
+                      SunOptions options,
+                      RouteCache cache) {
+        this(controller, config, options, cache);
+        open(exchange);
+    }
+
+    public SunSession(HttpExchange exchange, Controller controller, AmayaConfig config, SunOptions options) {
+        this(exchange, controller, config, options, null);
+    }
+
+    public SunSession(HttpExchange exchange, Controller controller, AmayaConfig config) {
+        this(exchange, controller, config, new SunOptions(), null);
     }
 
     public static void send(HttpExchange exchange, Charset charset, HttpCode code, Object body) throws IOException {
-        if (body == null) {
-            exchange.sendResponseHeaders(code, 0);
+        Object event = SunEvents.beginBody();
+        if (event == null) {
+            ResponseEncoder.send(exchange, charset, code, body);
+            return;
+        }
+        long bytes = -1;
+        try {
+            bytes = ResponseEncoder.send(exchange, charset, code, body);
+        } finally {
+            SunEvents.endBody(event, code, bytes, false);
+        }
+    }
+
+    /**
+     * Binds the session to the exchange.
+     *
+     * @param exchange exchange to be handled, must be not null
+     * @return new generation of the session
+     */
+    public int open(HttpExchange exchange) {
+        if (this.exchange != null) {
+            throw new IllegalStateException("Session is already open");
+        }
+        this.exchange = Objects.requireNonNull(exchange);
+        this.isCompleted = false;
+        this.isResponded = false;
+        this.matchedRoute = null;
+        this.requestData = null;
+        this.pending = null;
+        this.pendingResponse = null;
+        this.pendingHandler = null;
+        return ++generation;
+    }
+
+    /**
+     * Unbinds the session from the exchange. The exchange itself is not closed.
+     */
+    public void release() {
+        exchange = null;
+    }
+
+    /**
+     * Returns the generation of the session, which changes each time the session is opened.
+     *
+     * @return generation number
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Checks if the session is still bound to the exchange of the specified generation.
+     *
+     * @param generation expected generation
+     * @return true, if the session is open and has not been reopened since
+     */
+    public boolean isValid(int generation) {
+        return exchange != null && this.generation == generation;
+    }
+
+    /**
+     * Returns the method route matched by the current exchange.
+     *
+     * @return route or null, if the route has not been found or is not tracked
+     */
+    public String getMatchedRoute() {
+        return matchedRoute;
+    }
+
+    /**
+     * Deletes the temporary files created while reading the request body of the current exchange.
+     * Must be called when the exchange is completed.
+     */
+    public void cleanup() {
+        SunRequestData data = requestData;
+        requestData = null;
+        if (data == null) {
             return;
         }
-        String stringBody = body.toString();
-        exchange.sendResponseHeaders(code, stringBody.getBytes(charset).length);
-        OutputStreamWriter streamWriter = new OutputStreamWriter(exchange.getResponseBody(), charset);
-        BufferedWriter writer = new BufferedWriter(streamWriter);
-        writer.write(stringBody);
-        writer.flush();
+        try {
+            data.close();
+        } catch (IOException ignored) {
+            // Files that cannot be deleted now are left to the temporary directory cleanup
+        }
+    }
+
+    private HttpExchange getExchange() {
+        HttpExchange ret = exchange;
+        if (ret == null) {
+            throw new IllegalStateException("Session is used after release");
+        }
+        return ret;
+    }
+
+    private static Map<String, Object> extractParameters(MethodRoute route, String path) {
+        try {
+            return ParseUtil.extractRouteParameters(route, path);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private HttpResponse execute(Action<Object, Object> handler,
+                                 RouteData data,
+                                 Map<String, Object> parameters,
+                                 long start,
+                                 Object routing,
+                                 boolean cached) throws Throwable {
+        SunRequestData requestData = new SunRequestData(getExchange(), data, config.getCharset(), options);
+        requestData.setParameters(parameters);
+        this.requestData = requestData;
+        matchedRoute = requestData.getRoute().getRoute();
+        SunEvents.endRouting(routing, requestData.getPath(), matchedRoute, cached);
+        if (metrics == null) {
+            return process(handler, requestData);
+        }
+        long now = System.nanoTime();
+        metrics.phaseFinished(SunMetrics.Phase.ROUTING, now - start);
+        try {
+            return process(handler, requestData);
+        } finally {
+            long end = System.nanoTime();
+            long parsed = requestData.getInputEnd();
+            if (parsed == 0) {
+                metrics.phaseFinished(SunMetrics.Phase.INPUT, end - now);
+            } else {
+                metrics.phaseFinished(SunMetrics.Phase.INPUT, parsed - now);
+                metrics.phaseFinished(SunMetrics.Phase.CONTROLLER, end - parsed);
+            }
+        }
+    }
+
+    private HttpResponse invoke(Action<Object, Object> handler, SunRequestData data) throws Throwable {
+        Object event = SunEvents.beginInvocation();
+        if (event == null) {
+            return (HttpResponse) handler.execute(data);
+        }
+        try {
+            return (HttpResponse) handler.execute(data);
+        } finally {
+            SunEvents.endInvocation(event, controllerRoute, matchedRoute);
+        }
+    }
+
+    private HttpResponse process(Action<Object, Object> handler, SunRequestData data) throws Throwable {
+        int size = inputActions.size();
+        for (int i = 0; i < size; ++i) {
+            inputActions.get(i).execute(data);
+            if (data.isResponded()) {
+                // The exchange has been answered, the output stage must only see a placeholder
+                isResponded = true;
+                return Responses.responseWithCode(HttpCode.OK, null);
+            }
+        }
+        return invoke(handler, data);
+    }
+
+    private HttpResponse respond(HttpCode code, long start) {
+        if (metrics != null) {
+            metrics.phaseFinished(SunMetrics.Phase.ROUTING, System.nanoTime() - start);
+            metrics.requestRejected(code);
+        }
+        return Responses.responseWithCode(code, code.getMessage());
     }
 
     @Override
     public HttpResponse handleInput(Action<Object, Object> handler) throws Throwable {
-        HttpMethod method = HttpMethod.fromName(exchange.getRequestMethod());
-        if (method == null) {
-            HttpCode code = HttpCode.NOT_IMPLEMENTED;
-            return Responses.responseWithCode(code, code.getMessage());
+        long start = metrics == null ? 0 : System.nanoTime();
+        Object routing = SunEvents.beginRouting();
+        HttpExchange exchange = getExchange();
+        long limit = options.getMaxBodySize();
+        if (limit >= 0 && SunRequestData.getContentLength(exchange) > limit) {
+            SunEvents.endRouting(routing, null, null, false);
+            return respond(HttpCode.REQUEST_ENTITY_TOO_LARGE, start);
         }
+        String rawMethod = exchange.getRequestMethod();
         URI uri = exchange.getRequestURI();
-        String path = ParseUtil.normalizeRoute(uri.getPath().substring(length));
+        String rawPath = uri.getPath();
+        if (cache != null) {
+            RouteCache.Entry entry = cache.get(rawMethod, rawPath);
+            if (entry != null) {
+                return execute(handler, entry.getData(), entry.getParameters(), start, routing, true);
+            }
+        }
+        HttpMethod method = HttpMethod.fromName(rawMethod);
+        if (method == null) {
+            SunEvents.endRouting(routing, rawPath, null, false);
+            return respond(HttpCode.NOT_IMPLEMENTED, start);
+        }
+        String path = ParseUtil.normalizeRoute(rawPath.substring(length));
         MethodRoute route = router.follow(method, path);
         if (route == null) {
-            HttpCode code = HttpCode.NOT_FOUND;
-            return Responses.responseWithCode(code, code.getMessage());
+            SunEvents.endRouting(routing, path, null, false);
+            return respond(HttpCode.NOT_FOUND, start);
         }
         RouteData data = new RouteData(method, path, route);
-        SunRequestData requestData = new SunRequestData(exchange, data, config.getCharset());
-        return (HttpResponse) handler.execute(requestData);
+        if (cache == null) {
+            return execute(handler, data, null, start, routing, false);
+        }
+        Map<String, Object> parameters = extractParameters(route, path);
+        RouteCache.Entry entry = cache.put(rawMethod, rawPath, data, parameters);
+        return execute(handler, data, entry.getParameters(), start, routing, false);
+    }
+
+    /**
+     * Checks if the response of the current exchange is deferred: the body returned by the controller
+     * is a {@link CompletionStage}, and the output pipeline will be executed when it completes.
+     *
+     * @return true, if the session is waiting for the completion of the response
+     */
+    public boolean isSuspended() {
+        return pending != null;
+    }
+
+    /**
+     * Waits for the completion of the deferred response without blocking. When the stage completes,
+     * the output pipeline is executed in the completing thread, then the callback is called.
+     * If the stage completes exceptionally, the exchange is rejected. If the deferred timeout elapses first,
+     * the exchange is answered with 503 in the timer thread, and the callback is called there.
+     *
+     * @param callback action to be called when the response is sent or rejected
+     */
+    public void resume(Runnable callback) {
+        CompletionStage<?> stage = pending;
+        if (stage == null) {
+            throw new IllegalStateException("Session is not suspended");
+        }
+        int generation = this.generation;
+        AtomicBoolean done = new AtomicBoolean();
+        long timeout = options.getDeferredTimeout();
+        ScheduledFuture<?> timer = null;
+        if (timeout >= 0) {
+            timer = Timer.INSTANCE.schedule(() -> {
+                if (done.compareAndSet(false, true) && check(generation, callback)) {
+                    expire(callback);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+        ScheduledFuture<?> deadline = timer;
+        stage.whenComplete((value, error) -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            if (!check(generation, callback)) {
+                return;
+            }
+            try {
+                complete(value, error);
+            } finally {
+                close(callback);
+            }
+        });
+    }
+
+    private boolean check(int generation, Runnable callback) {
+        if (isValid(generation)) {
+            return true;
+        }
+        // The session has been released or reopened, so the response must not reach another exchange
+        LOGGER.error("Deferred response of a released session is dropped");
+        close(callback);
+        return false;
+    }
+
+    private static void close(Runnable callback) {
+        // Exceptions thrown here would only complete the stage returned by whenComplete, which nobody observes
+        try {
+            callback.run();
+        } catch (Throwable e) {
+            LOGGER.error("Failed to complete the deferred exchange", e);
+        }
+    }
+
+    private void expire(Runnable callback) {
+        pending = null;
+        pendingResponse = null;
+        pendingHandler = null;
+        try {
+            reject(HttpCode.SERVICE_UNAVAILABLE, "Response deadline exceeded");
+        } catch (Throwable e) {
+            LOGGER.error("Failed to reject the expired exchange", e);
+        } finally {
+            close(callback);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private void complete(Object value, Throwable error) {
+        HttpResponse response = pendingResponse;
+        Action<Object, Object> handler = pendingHandler;
+        pending = null;
+        pendingResponse = null;
+        pendingHandler = null;
+        try {
+            if (error != null) {
+                reject(unwrap(error));
+                return;
+            }
+            if (value instanceof HttpResponse) {
+                response = (HttpResponse) value;
+            } else {
+                response.setBody(value);
+            }
+            output(handler, response);
+        } catch (Throwable e) {
+            try {
+                reject(e);
+            } catch (Throwable ignored) {
+                // The response has already been started, so there is nothing to send
+            }
+        }
     }
 
     @Override
     public void handleOutput(Action<Object, Object> handler, HttpResponse response) throws Throwable {
-        SunResponseData responseData = new SunResponseData(exchange, response);
-        handler.execute(responseData);
+        if (isResponded) {
+            return;
+        }
+        Object body = response.getBody();
+        if (body instanceof CompletionStage) {
+            pending = (CompletionStage<?>) body;
+            pendingResponse = response;
+            pendingHandler = handler;
+            return;
+        }
+        output(handler, response);
+    }
+
+    private void output(Action<Object, Object> handler, HttpResponse response) throws Throwable {
+        long start = metrics == null ? 0 : System.nanoTime();
+        SunResponseData responseData = new SunResponseData(getExchange(), response, options);
+        try {
+            handler.execute(responseData);
+        } finally {
+            if (metrics != null) {
+                long write = responseData.getWriteTime();
+                metrics.phaseFinished(SunMetrics.Phase.OUTPUT, System.nanoTime() - start - write);
+                if (write != 0) {
+                    metrics.phaseFinished(SunMetrics.Phase.WRITE, write);
+                }
+            }
+        }
     }
 
     @Override
     public void reject(Throwable e) throws IOException {
+        // The exception may come wrapped by reflective calls of the controller
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BodyTooLargeException) {
+                reject(HttpCode.REQUEST_ENTITY_TOO_LARGE, cause.getMessage());
+                return;
+            }
+        }
         HttpCode code = HttpCode.INTERNAL_SERVER_ERROR;
         String message;
         if (config.isDebug()) {
@@ -91,9 +488,12 @@ public class SunSession implements Session {
 
     @Override
     public void reject(HttpCode code, String message) throws IOException {
+        HttpExchange exchange = getExchange();
+        if (metrics != null) {
+            metrics.requestRejected(code);
+        }
         Charset charset = config.getCharset();
-        String header = HttpUtil.generateContentHeader(ContentType.PLAIN, charset);
-        exchange.getResponseHeaders().set(HttpUtil.CONTENT_HEADER, header);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, ContentHeaders.get(ContentType.PLAIN, charset));
         send(exchange, charset, code, message);
     }
 
@@ -106,4 +506,18 @@ public class SunSession implements Session {
     public boolean isCompleted() {
         return isCompleted;
     }
+
+    private static final class Timer {
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor ret = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "amaya-deferred-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ret.setRemoveOnCancelPolicy(true);
+            return ret;
+        }
+    }
 }
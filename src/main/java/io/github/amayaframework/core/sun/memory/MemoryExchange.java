@@ -0,0 +1,200 @@
+package io.github.amayaframework.core.sun.memory;
+
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpContext;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>An exchange that replays a {@link MemoryRequest} and collects the response into a {@link ResponseSink}
+ * without any socket.</p>
+ * <p>The exchange can be reused by calling {@link #reset()}, which keeps the response buffers,
+ * so replaying the same request does not allocate inside the exchange. The exchange is not thread-safe.</p>
+ */
+public final class MemoryExchange implements HttpExchange {
+    private static final InetSocketAddress REMOTE_ADDRESS = new InetSocketAddress("127.0.0.1", 0);
+    private final MemoryRequest request;
+    private final InetSocketAddress localAddress;
+    private final HeaderMap responseHeaders;
+    private final Map<String, Object> attributes;
+    private final ByteArrayInputStream body;
+    private final ResponseSink sink;
+    private final boolean discard;
+    private HttpContext context;
+    private InputStream input;
+    private OutputStream output;
+    private HttpCode code;
+    private long length;
+    private boolean closed;
+
+    /**
+     * Creates an exchange for the specified request.
+     *
+     * @param request      request to be replayed, must be not null
+     * @param localAddress address of the server
+     * @param discard      true, if the response body must be only counted, not stored
+     */
+    public MemoryExchange(MemoryRequest request, InetSocketAddress localAddress, boolean discard) {
+        this.request = Objects.requireNonNull(request);
+        this.localAddress = localAddress;
+        this.discard = discard;
+        this.responseHeaders = new HeaderMap();
+        this.attributes = new HashMap<>();
+        this.body = new ByteArrayInputStream(request.getBody());
+        this.sink = new ResponseSink();
+        reset();
+    }
+
+    public MemoryExchange(MemoryRequest request, boolean discard) {
+        this(request, REMOTE_ADDRESS, discard);
+    }
+
+    public MemoryExchange(MemoryRequest request) {
+        this(request, REMOTE_ADDRESS, false);
+    }
+
+    /**
+     * Prepares the exchange to be handled again: rewinds the request body and clears the response.
+     */
+    public void reset() {
+        body.reset();
+        sink.reset(discard);
+        responseHeaders.clear();
+        attributes.clear();
+        input = body;
+        output = sink;
+        code = null;
+        length = -1;
+        closed = false;
+    }
+
+    void setContext(HttpContext context) {
+        this.context = context;
+    }
+
+    public MemoryRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Returns the sink containing the response body.
+     *
+     * @return {@link ResponseSink} instance
+     */
+    public ResponseSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Returns the length passed with the response headers: 0 for a chunked response,
+     * -1 for a response without a body or if the headers were not sent.
+     *
+     * @return response length
+     */
+    public long getResponseLength() {
+        return length;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public HeaderMap getRequestHeaders() {
+        return request.getHeaders();
+    }
+
+    @Override
+    public HeaderMap getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return request.getURI();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return request.getMethod();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return input;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return output;
+    }
+
+    @Override
+    public void sendResponseHeaders(HttpCode code, long length) throws IOException {
+        if (this.code != null) {
+            throw new IOException("Headers already sent");
+        }
+        this.code = Objects.requireNonNull(code);
+        this.length = length;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return REMOTE_ADDRESS;
+    }
+
+    @Override
+    public HttpCode getResponseCode() {
+        return code;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public String getProtocol() {
+        return request.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream input, OutputStream output) {
+        if (input != null) {
+            this.input = input;
+        }
+        if (output != null) {
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.amayaframework.core.sun.memory;
+
+import io.github.amayaframework.http.HeaderMap;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>An immutable request parsed once from its raw HTTP/1.1 bytes, which can be replayed by any number
+ * of {@link MemoryExchange}s.</p>
+ * <p>The request headers are shared by all exchanges created from the request, so handlers must not
+ * modify them.</p>
+ */
+public final class MemoryRequest {
+    private static final String DEFAULT_PROTOCOL = "HTTP/1.1";
+    private static final byte[] EMPTY_BODY = new byte[0];
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final HeaderMap headers;
+    private final byte[] body;
+
+    private MemoryRequest(String method, URI uri, String protocol, HeaderMap headers, byte[] body) {
+        this.method = method;
+        this.uri = uri;
+        this.protocol = protocol;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Creates a request from the specified parts.
+     *
+     * @param method  request method, must be not null
+     * @param uri     request uri, must be not null
+     * @param headers request headers, must be not null
+     * @param body    request body, must be not null
+     * @return {@link MemoryRequest} instance
+     */
+    public static MemoryRequest of(String method, String uri, Map<String, List<String>> headers, byte[] body) {
+        HeaderMap map = new HeaderMap();
+        Objects.requireNonNull(headers).forEach((name, values) -> values.forEach(value -> map.add(name, value)));
+        return new MemoryRequest(
+                Objects.requireNonNull(method),
+                URI.create(uri),
+                DEFAULT_PROTOCOL,
+                map,
+                Objects.requireNonNull(body).clone()
+        );
+    }
+
+    /**
+     * Creates a request without headers and body.
+     *
+     * @param method request method, must be not null
+     * @param uri    request uri, must be not null
+     * @return {@link MemoryRequest} instance
+     */
+    public static MemoryRequest of(String method, String uri) {
+        return new MemoryRequest(
+                Objects.requireNonNull(method),
+                URI.create(uri),
+                DEFAULT_PROTOCOL,
+                new HeaderMap(),
+                EMPTY_BODY
+        );
+    }
+
+    private static int findLineEnd(byte[] raw, int start) {
+        for (int i = start; i < raw.length - 1; ++i) {
+            if (raw[i] == '\r' && raw[i + 1] == '\n') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated line at " + start);
+    }
+
+    /**
+     * Parses the request from its raw bytes: the request line, the headers and the body,
+     * separated as specified by RFC 7230. The body is everything after the empty line,
+     * so the request must not use chunked transfer coding.
+     *
+     * @param raw bytes of the request, must be not null
+     * @return {@link MemoryRequest} instance
+     * @throws IllegalArgumentException if the request is malformed
+     */
+    public static MemoryRequest parse(byte[] raw) {
+        Objects.requireNonNull(raw);
+        int end = findLineEnd(raw, 0);
+        String[] line = new String(raw, 0, end, StandardCharsets.ISO_8859_1).split(" ");
+        if (line.length != 3) {
+            throw new IllegalArgumentException("Malformed request line");
+        }
+        HeaderMap headers = new HeaderMap();
+        int position = end + 2;
+        while ((end = findLineEnd(raw, position)) != position) {
+            String header = new String(raw, position, end - position, StandardCharsets.ISO_8859_1);
+            int colon = header.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Malformed header: " + header);
+            }
+            headers.add(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+            position = end + 2;
+        }
+        byte[] body = Arrays.copyOfRange(raw, end + 2, raw.length);
+        return new MemoryRequest(line[0], URI.create(line[1]), line[2], headers, body);
+    }
+
+    /**
+     * Parses the request from its text, encoded in ISO-8859-1.
+     *
+     * @param raw text of the request, must be not null
+     * @return {@link MemoryRequest} instance
+     * @throws IllegalArgumentException if the request is malformed
+     */
+    public static MemoryRequest parse(String raw) {
+        return parse(raw.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URI getURI() {
+        return uri;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public HeaderMap getHeaders() {
+        return headers;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+}
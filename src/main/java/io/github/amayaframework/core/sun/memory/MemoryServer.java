@@ -0,0 +1,196 @@
+package io.github.amayaframework.core.sun.memory;
+
+import io.github.amayaframework.core.sun.util.CannedResponse;
+import io.github.amayaframework.core.sun.util.RadixTree;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpContext;
+import io.github.amayaframework.server.interfaces.HttpHandler;
+import io.github.amayaframework.server.interfaces.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>A server without sockets, which passes {@link MemoryExchange}s directly to the handlers
+ * of its contexts.</p>
+ * <p>Exchanges are handled synchronously in the calling thread, the executor is only kept to be returned.
+ * The context is chosen by the longest path that is a prefix of the request path, as the sun server does.
+ * Contexts can be changed at any time, each change publishes a new lookup tree.</p>
+ */
+public class MemoryServer implements HttpServer {
+    private static final CannedResponse NOT_FOUND = new CannedResponse(HttpCode.NOT_FOUND);
+    private final Map<String, MemoryContext> contexts;
+    private volatile RadixTree<MemoryContext> tree;
+    private volatile boolean stopped;
+    private InetSocketAddress address;
+    private Executor executor;
+
+    public MemoryServer(InetSocketAddress address) {
+        this.address = address;
+        this.contexts = new LinkedHashMap<>();
+        this.tree = new RadixTree<>();
+    }
+
+    public MemoryServer() {
+        this(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    private void publish() {
+        RadixTree<MemoryContext> tree = new RadixTree<>();
+        contexts.forEach(tree::put);
+        this.tree = tree;
+    }
+
+    /**
+     * Passes the exchange to the handler of the matching context. If there is no such context,
+     * the exchange is answered with 404 and closed.
+     *
+     * @param exchange exchange to be handled, must be not null
+     * @throws IOException           if the handler fails
+     * @throws IllegalStateException if the server is stopped
+     */
+    public void handle(MemoryExchange exchange) throws IOException {
+        if (stopped) {
+            throw new IllegalStateException("Server is stopped");
+        }
+        MemoryContext context = tree.findLongestPrefix(exchange.getRequestURI().getPath());
+        HttpHandler handler = context == null ? null : context.handler;
+        if (handler == null) {
+            exchange.setContext(null);
+            try {
+                NOT_FOUND.send(exchange);
+            } finally {
+                exchange.close();
+            }
+            return;
+        }
+        exchange.setContext(context);
+        handler.handle(exchange);
+    }
+
+    /**
+     * Creates an exchange for the specified request, bound to the address of this server.
+     *
+     * @param request request to be replayed, must be not null
+     * @param discard true, if the response body must be only counted, not stored
+     * @return {@link MemoryExchange} instance
+     */
+    public MemoryExchange newExchange(MemoryRequest request, boolean discard) {
+        return new MemoryExchange(request, address, discard);
+    }
+
+    /**
+     * Creates an exchange for the specified request, handles it and returns it.
+     *
+     * @param request request to be replayed, must be not null
+     * @return {@link MemoryExchange} instance containing the response
+     * @throws IOException if the handler fails
+     */
+    public MemoryExchange handle(MemoryRequest request) throws IOException {
+        MemoryExchange ret = newExchange(request, false);
+        handle(ret);
+        return ret;
+    }
+
+    @Override
+    public void bind(InetSocketAddress address, int backlog) {
+        this.address = Objects.requireNonNull(address);
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void stop(int delay) {
+        stopped = true;
+    }
+
+    @Override
+    public synchronized HttpContext createContext(String path, HttpHandler handler) {
+        Objects.requireNonNull(path);
+        if (contexts.containsKey(path)) {
+            throw new IllegalArgumentException("Context already exists: " + path);
+        }
+        MemoryContext ret = new MemoryContext(path, handler);
+        contexts.put(path, ret);
+        publish();
+        return ret;
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        return createContext(path, null);
+    }
+
+    @Override
+    public synchronized void removeContext(String path) {
+        if (contexts.remove(Objects.requireNonNull(path)) == null) {
+            throw new IllegalArgumentException("Context not found: " + path);
+        }
+        publish();
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        removeContext(context.getPath());
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    private final class MemoryContext implements HttpContext {
+        private final String path;
+        private final Map<String, Object> attributes;
+        private volatile HttpHandler handler;
+
+        private MemoryContext(String path, HttpHandler handler) {
+            this.path = path;
+            this.handler = handler;
+            this.attributes = new HashMap<>();
+        }
+
+        @Override
+        public HttpHandler getHandler() {
+            return handler;
+        }
+
+        @Override
+        public void setHandler(HttpHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public HttpServer getServer() {
+            return MemoryServer.this;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.amayaframework.core.sun.memory;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * An output stream that collects the response body into a growing array, which is kept between
+ * exchanges, so that writing a response of the same size again does not allocate.
+ */
+public final class ResponseSink extends OutputStream {
+    private static final int INITIAL_SIZE = 256;
+    private byte[] buffer;
+    private int count;
+    private boolean discard;
+
+    ResponseSink() {
+        this.buffer = new byte[INITIAL_SIZE];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity - buffer.length <= 0) {
+            return;
+        }
+        if (capacity < 0) {
+            throw new OutOfMemoryError("Response body is too large");
+        }
+        int size = Math.max(capacity, buffer.length << 1);
+        buffer = Arrays.copyOf(buffer, size < 0 ? Integer.MAX_VALUE - 8 : size);
+    }
+
+    @Override
+    public void write(int b) {
+        if (discard) {
+            ++count;
+            return;
+        }
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (discard) {
+            count += len;
+            return;
+        }
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    void reset(boolean discard) {
+        this.discard = discard;
+        this.count = 0;
+    }
+
+    /**
+     * Returns the number of bytes written. Counted even if the body is discarded.
+     *
+     * @return number of bytes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns a copy of the written bytes.
+     *
+     * @return byte array, empty if the body is discarded
+     */
+    public byte[] toByteArray() {
+        return discard ? new byte[0] : Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Decodes the written bytes with the specified charset.
+     *
+     * @param charset charset to be used
+     * @return decoded string, empty if the body is discarded
+     */
+    public String toString(Charset charset) {
+        return discard ? "" : new String(buffer, 0, count, charset);
+    }
+}
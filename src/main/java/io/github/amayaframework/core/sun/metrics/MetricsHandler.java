@@ -0,0 +1,45 @@
+package io.github.amayaframework.core.sun.metrics;
+
+import io.github.amayaframework.core.sun.util.CannedResponse;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+import io.github.amayaframework.server.interfaces.HttpHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A handler rendering the measurements of {@link MetricsRegistry} in the Prometheus text format.
+ * Answers only GET requests.
+ */
+public class MetricsHandler implements HttpHandler {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final CannedResponse NOT_ALLOWED = new CannedResponse(
+            HttpCode.METHOD_NOT_ALLOWED,
+            HttpHeaders.ALLOW,
+            "GET"
+    );
+    private final MetricsRegistry registry;
+
+    public MetricsHandler(MetricsRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                NOT_ALLOWED.send(exchange);
+                return;
+            }
+            byte[] body = registry.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE);
+            exchange.sendResponseHeaders(HttpCode.OK, body.length);
+            exchange.getResponseBody().write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
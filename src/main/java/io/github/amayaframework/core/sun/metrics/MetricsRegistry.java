@@ -0,0 +1,224 @@
+package io.github.amayaframework.core.sun.metrics;
+
+import io.github.amayaframework.core.sun.handlers.Bulkhead;
+import io.github.amayaframework.http.HttpCode;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>The built-in implementation of {@link SunMetrics}, which keeps the measurements in memory
+ * and renders them in the Prometheus text format.</p>
+ * <p>Recording allocates only when a route or an action is seen for the first time.</p>
+ */
+public class MetricsRegistry implements SunMetrics {
+    private static final String UNMATCHED = "unmatched";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final HttpCode[] CODES = HttpCode.values();
+    private final ConcurrentMap<String, ConcurrentMap<String, LatencyHistogram>> routes;
+    private final ConcurrentMap<String, LatencyHistogram> actions;
+    private final LatencyHistogram[] phases;
+    private final LongAdder inFlight;
+    private final LongAdder bytesRead;
+    private final LongAdder bytesWritten;
+    private final AtomicLongArray rejects;
+    private final ConcurrentMap<String, Bulkhead> bulkheads;
+
+    public MetricsRegistry() {
+        this.routes = new ConcurrentHashMap<>();
+        this.actions = new ConcurrentHashMap<>();
+        Phase[] values = Phase.values();
+        this.phases = new LatencyHistogram[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            phases[i] = new LatencyHistogram();
+        }
+        this.inFlight = new LongAdder();
+        this.bytesRead = new LongAdder();
+        this.bytesWritten = new LongAdder();
+        this.rejects = new AtomicLongArray(CODES.length);
+        this.bulkheads = new ConcurrentHashMap<>();
+    }
+
+    private static <K, V> V get(ConcurrentMap<K, V> map, K key, Function<K, V> factory) {
+        V ret = map.get(key);
+        if (ret != null) {
+            return ret;
+        }
+        return map.computeIfAbsent(key, factory);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void renderSummary(StringBuilder builder, String name, String labels, LatencyHistogram histogram) {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double quantile : QUANTILES) {
+            builder.append(name)
+                    .append('{').append(labels).append(separator)
+                    .append("quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getQuantile(quantile) / NANOS_PER_SECOND)
+                    .append('\n');
+        }
+        String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+        builder.append(name).append("_sum").append(suffix).append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+        builder.append(name).append("_count").append(suffix).append(histogram.getCount()).append('\n');
+    }
+
+    @Override
+    public void requestStarted() {
+        inFlight.increment();
+    }
+
+    @Override
+    public void requestFinished(String controller, String route, long nanos) {
+        inFlight.decrement();
+        ConcurrentMap<String, LatencyHistogram> controllerRoutes = get(routes, controller, k -> new ConcurrentHashMap<>());
+        get(controllerRoutes, route == null ? UNMATCHED : route, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void phaseFinished(Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void actionFinished(String action, long nanos) {
+        get(actions, action, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void bytesTransferred(long read, long written) {
+        bytesRead.add(read);
+        bytesWritten.add(written);
+    }
+
+    @Override
+    public void requestRejected(HttpCode code) {
+        rejects.incrementAndGet(code.ordinal());
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getRejected(HttpCode code) {
+        return rejects.get(code.ordinal());
+    }
+
+    /**
+     * Adds the bulkhead, whose state is rendered together with the measurements.
+     * Adding the same bulkhead again has no effect.
+     *
+     * @param bulkhead {@link Bulkhead} instance
+     * @throws IllegalArgumentException if another bulkhead with the same name has been added
+     */
+    public void addBulkhead(Bulkhead bulkhead) {
+        Bulkhead present = bulkheads.putIfAbsent(bulkhead.getName(), bulkhead);
+        if (present != null && present != bulkhead) {
+            throw new IllegalArgumentException("Bulkhead " + bulkhead.getName() + " is already registered");
+        }
+    }
+
+    /**
+     * Returns the latency histogram of the route.
+     *
+     * @param controller route of the controller
+     * @param route      method route or null for requests to unknown routes
+     * @return {@link LatencyHistogram} instance or null, if no requests have been recorded
+     */
+    public LatencyHistogram getRouteLatency(String controller, String route) {
+        Map<String, LatencyHistogram> controllerRoutes = routes.get(controller);
+        if (controllerRoutes == null) {
+            return null;
+        }
+        return controllerRoutes.get(route == null ? UNMATCHED : route);
+    }
+
+    public LatencyHistogram getPhaseLatency(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public LatencyHistogram getActionLatency(String action) {
+        return actions.get(action);
+    }
+
+    /**
+     * Renders all measurements in the Prometheus text exposition format, with times in seconds.
+     *
+     * @param builder builder to be appended
+     */
+    public void render(StringBuilder builder) {
+        builder.append("# TYPE amaya_requests_in_flight gauge\n")
+                .append("amaya_requests_in_flight ").append(getInFlight()).append('\n');
+        builder.append("# TYPE amaya_request_duration_seconds summary\n");
+        routes.forEach((controller, controllerRoutes) -> controllerRoutes.forEach((route, histogram) -> {
+            String labels = "controller=\"" + escape(controller) + "\",route=\"" + escape(route) + "\"";
+            renderSummary(builder, "amaya_request_duration_seconds", labels, histogram);
+        }));
+        builder.append("# TYPE amaya_phase_duration_seconds summary\n");
+        for (Phase phase : Phase.values()) {
+            String labels = "phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"";
+            renderSummary(builder, "amaya_phase_duration_seconds", labels, phases[phase.ordinal()]);
+        }
+        builder.append("# TYPE amaya_action_duration_seconds summary\n");
+        actions.forEach((action, histogram) ->
+                renderSummary(builder, "amaya_action_duration_seconds", "action=\"" + escape(action) + "\"", histogram)
+        );
+        builder.append("# TYPE amaya_received_bytes_total counter\n")
+                .append("amaya_received_bytes_total ").append(getBytesRead()).append('\n');
+        builder.append("# TYPE amaya_sent_bytes_total counter\n")
+                .append("amaya_sent_bytes_total ").append(getBytesWritten()).append('\n');
+        builder.append("# TYPE amaya_rejected_requests_total counter\n");
+        for (HttpCode code : CODES) {
+            long count = rejects.get(code.ordinal());
+            if (count != 0) {
+                builder.append("amaya_rejected_requests_total{code=\"").append(code.getCode()).append("\"} ")
+                        .append(count).append('\n');
+            }
+        }
+        if (!bulkheads.isEmpty()) {
+            renderBulkheads(builder);
+        }
+    }
+
+    private void renderBulkheads(StringBuilder builder) {
+        builder.append("# TYPE amaya_bulkhead_active_threads gauge\n");
+        bulkheads.forEach((name, bulkhead) -> builder.append("amaya_bulkhead_active_threads{bulkhead=\"")
+                .append(escape(name)).append("\"} ").append(bulkhead.getActiveThreads()).append('\n'));
+        builder.append("# TYPE amaya_bulkhead_queue_depth gauge\n");
+        bulkheads.forEach((name, bulkhead) -> builder.append("amaya_bulkhead_queue_depth{bulkhead=\"")
+                .append(escape(name)).append("\"} ").append(bulkhead.getQueueDepth()).append('\n'));
+        builder.append("# TYPE amaya_bulkhead_saturation gauge\n");
+        bulkheads.forEach((name, bulkhead) -> builder.append("amaya_bulkhead_saturation{bulkhead=\"")
+                .append(escape(name)).append("\"} ").append(bulkhead.getSaturation()).append('\n'));
+        builder.append("# TYPE amaya_bulkhead_rejected_total counter\n");
+        bulkheads.forEach((name, bulkhead) -> builder.append("amaya_bulkhead_rejected_total{bulkhead=\"")
+                .append(escape(name)).append("\"} ").append(bulkhead.getRejected()).append('\n'));
+    }
+
+    /**
+     * Renders all measurements in the Prometheus text exposition format.
+     *
+     * @return rendered measurements
+     */
+    public String render() {
+        StringBuilder ret = new StringBuilder();
+        render(ret);
+        return ret.toString();
+    }
+}
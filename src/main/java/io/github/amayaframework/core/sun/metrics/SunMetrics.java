@@ -0,0 +1,83 @@
+package io.github.amayaframework.core.sun.metrics;
+
+import io.github.amayaframework.http.HttpCode;
+
+/**
+ * <p>An interface describing the receiver of the measurements made while processing requests.</p>
+ * <p>All methods are called from the threads processing the requests, so implementations must be
+ * thread-safe and should not block. All times are in nanoseconds.</p>
+ */
+public interface SunMetrics {
+    /**
+     * Called when the processing of the request begins.
+     */
+    void requestStarted();
+
+    /**
+     * Called when the processing of the request ends, including the case of failure.
+     *
+     * @param controller route of the controller
+     * @param route      matched method route or null, if the route was not found
+     * @param nanos      time spent on the request
+     */
+    void requestFinished(String controller, String route, long nanos);
+
+    /**
+     * Called when a phase of the request processing ends.
+     *
+     * @param phase phase
+     * @param nanos time spent in the phase
+     */
+    void phaseFinished(Phase phase, long nanos);
+
+    /**
+     * Called when a pipeline action extending {@link io.github.amayaframework.core.sun.actions.MeasuredAction}
+     * ends. The actions of the core are not reported separately, their time is included in the phases.
+     *
+     * @param action name of the action
+     * @param nanos  time spent in the action
+     */
+    void actionFinished(String action, long nanos);
+
+    /**
+     * Called when the request and response bodies are processed.
+     *
+     * @param read    number of bytes read from the request body
+     * @param written number of bytes written to the response body
+     */
+    void bytesTransferred(long read, long written);
+
+    /**
+     * Called when the request is answered with an error without reaching the controller,
+     * or the processing of the request fails.
+     *
+     * @param code response code
+     */
+    void requestRejected(HttpCode code);
+
+    /**
+     * Phases of the request processing.
+     */
+    enum Phase {
+        /**
+         * Choice of the method route and extraction of path parameters.
+         */
+        ROUTING,
+        /**
+         * Input actions of the sun implementation and the input pipeline up to the end of the request parsing.
+         */
+        INPUT,
+        /**
+         * The rest of the input pipeline after the request parsing, mostly the call of the controller.
+         */
+        CONTROLLER,
+        /**
+         * Output pipeline, except the sending of the response.
+         */
+        OUTPUT,
+        /**
+         * Sending of the response headers and body to the exchange.
+         */
+        WRITE
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.amayaframework.core.sun.multipart;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parsed multipart/form-data body. Closing the form deletes the temporary files of its parts.
+ */
+public final class MultipartForm implements Closeable {
+    private final List<Part> parts;
+
+    MultipartForm(List<Part> parts) {
+        this.parts = Collections.unmodifiableList(parts);
+    }
+
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * Returns the first part with the specified field name.
+     *
+     * @param name field name
+     * @return {@link Part} instance or null, if there is no such part
+     */
+    public Part getPart(String name) {
+        for (Part part : parts) {
+            if (name.equals(part.getName())) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns all parts with the specified field name.
+     *
+     * @param name field name
+     * @return list of parts, empty if there are no such parts
+     */
+    public List<Part> getParts(String name) {
+        List<Part> ret = new ArrayList<>();
+        for (Part part : parts) {
+            if (name.equals(part.getName())) {
+                ret.add(part);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (Part part : parts) {
+            try {
+                part.delete();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
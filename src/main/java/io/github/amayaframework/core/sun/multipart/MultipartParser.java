@@ -0,0 +1,407 @@
+package io.github.amayaframework.core.sun.multipart;
+
+import io.github.amayaframework.core.sun.util.BodyTooLargeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>A streaming parser of multipart/form-data bodies (RFC 7578).</p>
+ * <p>The body is read through a fixed buffer, so memory usage does not depend on its size: the content
+ * of each part is kept in memory only up to the spill threshold, after which it is moved to a temporary file.
+ * Once the parts kept in memory reach the memory limit, the following parts go to files regardless of
+ * their size. The number of parts is limited, and a body with more parts fails with
+ * {@link BodyTooLargeException}. If parsing fails, the temporary files created so far are deleted.</p>
+ */
+public final class MultipartParser {
+    /**
+     * The default size of the part content, above which the content is moved to a temporary file.
+     */
+    public static final int DEFAULT_SPILL_THRESHOLD = 64 * 1024;
+    /**
+     * The default maximum number of parts in a body.
+     */
+    public static final int DEFAULT_MAX_PARTS = 1024;
+    /**
+     * The default maximum total size of the part contents kept in memory.
+     */
+    public static final long DEFAULT_MAX_MEMORY = 1024 * 1024;
+    private static final String MULTIPART_TYPE = "multipart/form-data";
+    private static final int MAX_HEADERS_SIZE = 8 * 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String TEMP_PREFIX = "amaya-";
+    private static final String TEMP_SUFFIX = ".part";
+    private final int spillThreshold;
+    private final Path directory;
+    private final int maxParts;
+    private final long maxMemory;
+
+    /**
+     * Creates a parser with the specified spill settings and limits.
+     *
+     * @param spillThreshold size of the part content, above which the content is moved to a file
+     * @param directory      directory of temporary files, or null to use the default one
+     * @param maxParts       maximum number of parts in a body, must be positive
+     * @param maxMemory      maximum total size of the part contents kept in memory
+     */
+    public MultipartParser(int spillThreshold, Path directory, int maxParts, long maxMemory) {
+        if (spillThreshold < 0 || maxParts <= 0 || maxMemory < 0) {
+            throw new IllegalArgumentException("Invalid spill threshold or limits");
+        }
+        this.spillThreshold = spillThreshold;
+        this.directory = directory;
+        this.maxParts = maxParts;
+        this.maxMemory = maxMemory;
+    }
+
+    public MultipartParser(int spillThreshold, Path directory) {
+        this(spillThreshold, directory, DEFAULT_MAX_PARTS, DEFAULT_MAX_MEMORY);
+    }
+
+    public MultipartParser() {
+        this(DEFAULT_SPILL_THRESHOLD, null);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            return value;
+        }
+        StringBuilder ret = new StringBuilder(value.length() - 2);
+        for (int i = 1; i < value.length() - 1; ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' && i < value.length() - 2) {
+                c = value.charAt(++i);
+            }
+            ret.append(c);
+        }
+        return ret.toString();
+    }
+
+    /**
+     * Parses the parameters of a header value, such as Content-Type or Content-Disposition.
+     * Quoted values may contain semicolons.
+     */
+    static Map<String, String> parseParameters(String header) {
+        Map<String, String> ret = new HashMap<>();
+        int length = header.length();
+        int start = header.indexOf(';');
+        while (start >= 0 && start < length) {
+            int end = start + 1;
+            boolean quoted = false;
+            while (end < length) {
+                char c = header.charAt(end);
+                if (c == '"' && header.charAt(end - 1) != '\\') {
+                    quoted = !quoted;
+                } else if (c == ';' && !quoted) {
+                    break;
+                }
+                ++end;
+            }
+            String parameter = header.substring(start + 1, end);
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                String name = parameter.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+                ret.put(name, unquote(parameter.substring(equals + 1).trim()));
+            }
+            start = end;
+        }
+        return ret;
+    }
+
+    /**
+     * Extracts the boundary from the value of the Content-Type header.
+     *
+     * @param contentType value of the header, may be null
+     * @return boundary or null, if the content type is not multipart/form-data or has no boundary
+     */
+    public static String getBoundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = semicolon < 0 ? contentType : contentType.substring(0, semicolon);
+        if (semicolon < 0 || !type.trim().equalsIgnoreCase(MULTIPART_TYPE)) {
+            return null;
+        }
+        String ret = parseParameters(contentType).get("boundary");
+        return ret == null || ret.isEmpty() ? null : ret;
+    }
+
+    /**
+     * Parses the body. The stream is read up to the closing delimiter.
+     *
+     * @param input    stream containing the body
+     * @param boundary boundary of the parts
+     * @return {@link MultipartForm} instance
+     * @throws IOException if the body is malformed or cannot be read
+     */
+    public MultipartForm parse(InputStream input, String boundary) throws IOException {
+        Scanner scanner = new Scanner(input, boundary);
+        List<Part> parts = new ArrayList<>();
+        try {
+            scanner.readBody(null);
+            long memory = maxMemory;
+            while (scanner.nextPart()) {
+                if (parts.size() == maxParts) {
+                    throw new BodyTooLargeException("Multipart body exceeds " + maxParts + " parts", maxParts);
+                }
+                Map<String, String> headers = scanner.readHeaders();
+                Part part = readPart(scanner, headers, memory);
+                if (part.isInMemory()) {
+                    memory -= part.getSize();
+                }
+                parts.add(part);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                new MultipartForm(parts).close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return new MultipartForm(parts);
+    }
+
+    private Part readPart(Scanner scanner, Map<String, String> headers, long memory) throws IOException {
+        String disposition = headers.get("content-disposition");
+        Map<String, String> parameters = disposition == null ?
+                Collections.emptyMap() :
+                parseParameters(disposition);
+        PartSink sink = new PartSink(Math.min(spillThreshold, memory));
+        try {
+            scanner.readBody(sink);
+            sink.close();
+        } catch (IOException | RuntimeException e) {
+            // The part is not added to the form yet, so its file would not be deleted with the others
+            sink.discard(e);
+            throw e;
+        }
+        return new Part(
+                Collections.unmodifiableMap(headers),
+                parameters.get("name"),
+                parameters.get("filename"),
+                sink.getContent(),
+                sink.file,
+                sink.size
+        );
+    }
+
+    private final class PartSink extends OutputStream {
+        private final long threshold;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private OutputStream stream;
+        private Path file;
+        private long size;
+
+        private PartSink(long threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (stream == null && size + len > threshold) {
+                file = directory == null ?
+                        Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX) :
+                        Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+                stream = Files.newOutputStream(file);
+                memory.writeTo(stream);
+                memory = null;
+            }
+            if (stream == null) {
+                memory.write(b, off, len);
+            } else {
+                stream.write(b, off, len);
+            }
+            size += len;
+        }
+
+        void discard(Exception cause) {
+            try {
+                close();
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+            }
+        }
+
+        byte[] getContent() {
+            return memory == null ? null : memory.toByteArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the body through a fixed buffer, looking for the delimiters of the parts.
+     */
+    private static final class Scanner {
+        private final InputStream input;
+        private final byte[] delimiter;
+        private final byte[] buffer;
+        private int head;
+        private int tail;
+
+        private Scanner(InputStream input, String boundary) {
+            this.input = input;
+            // The first delimiter may be at the very beginning, so the body is treated as if it started with CRLF
+            this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+            this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+            this.buffer[0] = '\r';
+            this.buffer[1] = '\n';
+            this.tail = 2;
+        }
+
+        private boolean fill() throws IOException {
+            if (head > 0) {
+                System.arraycopy(buffer, head, buffer, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+            if (tail == buffer.length) {
+                return true;
+            }
+            int read = input.read(buffer, tail, buffer.length - tail);
+            if (read < 0) {
+                return false;
+            }
+            tail += read;
+            return true;
+        }
+
+        private void require(int count) throws IOException {
+            while (tail - head < count) {
+                if (!fill()) {
+                    throw new IOException("Unexpected end of multipart body");
+                }
+            }
+        }
+
+        private int find(byte[] pattern, int from) {
+            int last = tail - pattern.length;
+            outer:
+            for (int i = from; i <= last; ++i) {
+                for (int j = 0; j < pattern.length; ++j) {
+                    if (buffer[i + j] != pattern[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Passes the data up to the next delimiter to the sink, or skips it, if the sink is null.
+         */
+        private void readBody(OutputStream sink) throws IOException {
+            int keep = delimiter.length - 1;
+            while (true) {
+                int index = find(delimiter, head);
+                if (index >= 0) {
+                    if (sink != null) {
+                        sink.write(buffer, head, index - head);
+                    }
+                    head = index + delimiter.length;
+                    return;
+                }
+                int safe = tail - keep;
+                if (safe > head) {
+                    if (sink != null) {
+                        sink.write(buffer, head, safe - head);
+                    }
+                    head = safe;
+                }
+                if (!fill()) {
+                    throw new IOException("Unexpected end of multipart body");
+                }
+            }
+        }
+
+        /**
+         * Reads the end of the delimiter line.
+         *
+         * @return true, if a part follows, false if the delimiter is the closing one
+         */
+        private boolean nextPart() throws IOException {
+            require(2);
+            if (buffer[head] == '-' && buffer[head + 1] == '-') {
+                head += 2;
+                return false;
+            }
+            while (true) {
+                require(2);
+                byte b = buffer[head];
+                if (b == ' ' || b == '\t') {
+                    ++head;
+                    continue;
+                }
+                if (b == '\r' && buffer[head + 1] == '\n') {
+                    head += 2;
+                    return true;
+                }
+                throw new IOException("Malformed multipart delimiter");
+            }
+        }
+
+        private Map<String, String> readHeaders() throws IOException {
+            Map<String, String> ret = new HashMap<>();
+            int total = 0;
+            while (true) {
+                int end;
+                while ((end = findLineEnd()) < 0) {
+                    if (tail - head >= MAX_HEADERS_SIZE || !fill()) {
+                        throw new IOException("Malformed multipart headers");
+                    }
+                }
+                int length = end - head;
+                total += length + 2;
+                if (total > MAX_HEADERS_SIZE) {
+                    throw new IOException("Multipart headers are too large");
+                }
+                String line = new String(buffer, head, length, StandardCharsets.UTF_8);
+                head = end + 2;
+                if (line.isEmpty()) {
+                    return ret;
+                }
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    throw new IOException("Malformed multipart header: " + line);
+                }
+                ret.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+
+        private int findLineEnd() {
+            for (int i = head; i < tail - 1; ++i) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.amayaframework.core.sun.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>A part of a multipart/form-data body.</p>
+ * <p>The content of the part is kept in memory, or, if it is larger than the spill threshold,
+ * in a temporary file, which is deleted together with the form.</p>
+ */
+public final class Part {
+    private final Map<String, String> headers;
+    private final String name;
+    private final String fileName;
+    private final byte[] content;
+    private final Path file;
+    private final long size;
+
+    Part(Map<String, String> headers, String name, String fileName, byte[] content, Path file, long size) {
+        this.headers = headers;
+        this.name = name;
+        this.fileName = fileName;
+        this.content = content;
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * Returns the headers of the part.
+     *
+     * @return unmodifiable map with lower-case header names
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the name of the form field, taken from the Content-Disposition header.
+     *
+     * @return field name or null
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the name of the uploaded file, taken from the Content-Disposition header.
+     *
+     * @return file name or null, if the part is not a file
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return headers.get("content-type");
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the content of the part is kept in memory.
+     *
+     * @return true, if the content is in memory, false if it is in a temporary file
+     */
+    public boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * Returns the temporary file containing the content of the part.
+     *
+     * @return {@link Path} of the file or null, if the content is in memory
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public InputStream getInputStream() throws IOException {
+        if (file == null) {
+            return new ByteArrayInputStream(content);
+        }
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * Returns the content of the part. The content of a spilled part is read from its file.
+     *
+     * @return byte array
+     * @throws IOException if the file cannot be read
+     */
+    public byte[] getBytes() throws IOException {
+        if (file == null) {
+            return content.clone();
+        }
+        return Files.readAllBytes(file);
+    }
+
+    public String getString(Charset charset) throws IOException {
+        if (file == null) {
+            return new String(content, charset);
+        }
+        return new String(Files.readAllBytes(file), charset);
+    }
+
+    void delete() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
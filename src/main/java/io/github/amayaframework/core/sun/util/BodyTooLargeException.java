@@ -0,0 +1,25 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the request body exceeds the maximum allowed size.
+ * The session answers such requests with 413.
+ */
+public class BodyTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final long limit;
+
+    public BodyTooLargeException(String message, long limit) {
+        super(message);
+        this.limit = limit;
+    }
+
+    public BodyTooLargeException(long limit) {
+        this("Request body exceeds " + limit + " bytes", limit);
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
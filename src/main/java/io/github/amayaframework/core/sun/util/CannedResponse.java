@@ -0,0 +1,56 @@
+package io.github.amayaframework.core.sun.util;
+
+import io.github.amayaframework.http.ContentType;
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A plain text response encoded once at creation, which can be sent without any per-request work.
+ * Used to answer requests that are rejected before reaching the pipeline.
+ */
+public final class CannedResponse {
+    private static final String CONTENT_HEADER = ContentHeaders.get(ContentType.PLAIN, StandardCharsets.UTF_8);
+    private final HttpCode code;
+    private final byte[] body;
+    private final String[] headers;
+
+    /**
+     * Creates a response with the message of the code as the body.
+     *
+     * @param code    response code, must be not null
+     * @param headers pairs of header names and values
+     */
+    public CannedResponse(HttpCode code, String... headers) {
+        if (headers.length % 2 != 0) {
+            throw new IllegalArgumentException("Headers must be specified as name-value pairs");
+        }
+        this.code = Objects.requireNonNull(code);
+        this.body = code.getMessage().getBytes(StandardCharsets.UTF_8);
+        this.headers = headers.clone();
+    }
+
+    public HttpCode getCode() {
+        return code;
+    }
+
+    /**
+     * Sends the response. The exchange is not closed.
+     *
+     * @param exchange exchange to be used
+     * @throws IOException if an I/O error occurs
+     */
+    public void send(HttpExchange exchange) throws IOException {
+        HeaderMap map = exchange.getResponseHeaders();
+        map.set(HttpHeaders.CONTENT_TYPE, CONTENT_HEADER);
+        for (int i = 0; i < headers.length; i += 2) {
+            map.set(headers[i], headers[i + 1]);
+        }
+        exchange.sendResponseHeaders(code, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
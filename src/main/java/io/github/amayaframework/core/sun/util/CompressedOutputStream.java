@@ -0,0 +1,107 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>An output stream that compresses data with a deflater taken from a {@link DeflaterPool}.</p>
+ * <p>Produces the gzip or zlib format, depending on the specified coding. Flushing the stream flushes
+ * all data compressed so far. The deflater returns to the pool when the stream is finished.</p>
+ */
+public class CompressedOutputStream extends DeflaterOutputStream {
+    static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0};
+    private final DeflaterPool pool;
+    private final CRC32 crc;
+    private boolean released;
+
+    public CompressedOutputStream(OutputStream out, ContentEncoding encoding, DeflaterPool pool, int size)
+            throws IOException {
+        super(out, pool.acquire(), size, true);
+        this.pool = pool;
+        if (encoding == ContentEncoding.GZIP) {
+            this.crc = new CRC32();
+            out.write(GZIP_HEADER);
+        } else {
+            this.crc = null;
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private void checkReleased() throws IOException {
+        if (released) {
+            throw new IOException("Stream is already finished");
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkReleased();
+        super.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkReleased();
+        super.write(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (released) {
+            out.flush();
+            return;
+        }
+        super.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (released) {
+            return;
+        }
+        try {
+            super.finish();
+            if (crc != null) {
+                writeInt((int) crc.getValue());
+                writeInt((int) def.getBytesRead());
+            }
+        } finally {
+            released = true;
+            pool.release(def);
+        }
+    }
+
+    /**
+     * Returns the deflater to the pool without writing the remaining compressed data.
+     * Does nothing if the stream is already finished.
+     */
+    public void discard() {
+        if (released) {
+            return;
+        }
+        released = true;
+        pool.release(def);
+    }
+
+    /**
+     * Finishes the compression and flushes the underlying stream without closing it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.flush();
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A class that compresses response bodies with the specified content coding using pooled deflaters.
+ */
+public class Compressor {
+    private static final int GZIP_OVERHEAD = 18;
+    private final ContentEncoding encoding;
+    private final DeflaterPool pool;
+    private final int minSize;
+
+    public Compressor(ContentEncoding encoding, int level, int poolSize, int minSize) {
+        this.encoding = encoding;
+        this.pool = new DeflaterPool(level, encoding == ContentEncoding.GZIP, poolSize);
+        this.minSize = minSize;
+    }
+
+    private static void putInt(ByteBuffer buffer, int value) {
+        buffer.put((byte) value);
+        buffer.put((byte) (value >> 8));
+        buffer.put((byte) (value >> 16));
+        buffer.put((byte) (value >> 24));
+    }
+
+    public ContentEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Returns the minimum size of a body, starting from which it is compressed.
+     *
+     * @return size in bytes
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Wraps the stream into a compressing one.
+     *
+     * @param out  stream to be wrapped
+     * @param size size of the output buffer
+     * @return {@link CompressedOutputStream} instance
+     * @throws IOException if an I/O error occurs
+     */
+    public CompressedOutputStream wrap(OutputStream out, int size) throws IOException {
+        return new CompressedOutputStream(out, encoding, pool, size);
+    }
+
+    /**
+     * Compresses the remaining content of the buffer into a buffer owned by the current thread.
+     * The returned buffer is ready to be read and stays valid until the next call of {@link ResponseEncoder}.
+     *
+     * @param body buffer to be compressed, must have an accessible array
+     * @return {@link ByteBuffer} containing compressed bytes
+     */
+    public ByteBuffer compress(ByteBuffer body) {
+        int length = body.remaining();
+        Deflater deflater = pool.acquire();
+        try {
+            deflater.setInput(body.array(), body.arrayOffset() + body.position(), length);
+            deflater.finish();
+            ResponseEncoder encoder = ResponseEncoder.get();
+            ByteBuffer out = encoder.getOutputBuffer(length / 2 + GZIP_OVERHEAD);
+            if (encoding == ContentEncoding.GZIP) {
+                out.put(CompressedOutputStream.GZIP_HEADER);
+            }
+            while (!deflater.finished()) {
+                if (!out.hasRemaining()) {
+                    out = encoder.growOutputBuffer(out);
+                }
+                int count = deflater.deflate(out.array(), out.arrayOffset() + out.position(), out.remaining());
+                out.position(out.position() + count);
+            }
+            if (encoding == ContentEncoding.GZIP) {
+                if (out.remaining() < 8) {
+                    out = encoder.growOutputBuffer(out);
+                }
+                CRC32 crc = encoder.getChecksum();
+                crc.update(body.array(), body.arrayOffset() + body.position(), length);
+                putInt(out, (int) crc.getValue());
+                putInt(out, length);
+            }
+            out.flip();
+            body.position(body.limit());
+            return out;
+        } finally {
+            pool.release(deflater);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.amayaframework.core.sun.util;
+
+/**
+ * An enumeration of the content codings supported by the response compression.
+ */
+public enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String name;
+
+    ContentEncoding(String name) {
+        this.name = name;
+    }
+
+    private static float parseQuality(String header, int start, int end) {
+        int position = header.indexOf(';', start);
+        if (position < 0 || position >= end) {
+            return 1;
+        }
+        int equals = header.indexOf('=', position);
+        if (equals < 0 || equals >= end) {
+            return 1;
+        }
+        String name = header.substring(position + 1, equals).trim();
+        if (!name.equalsIgnoreCase("q")) {
+            return 1;
+        }
+        try {
+            return Float.parseFloat(header.substring(equals + 1, end).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean matches(String header, int start, int end, String name) {
+        while (start < end && header.charAt(start) == ' ') {
+            ++start;
+        }
+        int length = name.length();
+        if (end - start < length || !header.regionMatches(true, start, name, 0, length)) {
+            return false;
+        }
+        int position = start + length;
+        while (position < end && header.charAt(position) == ' ') {
+            ++position;
+        }
+        return position == end || header.charAt(position) == ';';
+    }
+
+    /**
+     * Chooses the content coding according to the value of the Accept-Encoding header.
+     * Gzip is preferred when both codings are accepted with the same quality.
+     *
+     * @param header value of the header, may be null
+     * @return {@link ContentEncoding} instance or null, if none of the codings is acceptable
+     */
+    public static ContentEncoding negotiate(String header) {
+        if (header == null || header.isEmpty()) {
+            return null;
+        }
+        float gzip = -1;
+        float deflate = -1;
+        float any = -1;
+        int start = 0;
+        int length = header.length();
+        while (start < length) {
+            int end = header.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (matches(header, start, end, GZIP.name) || matches(header, start, end, "x-gzip")) {
+                gzip = parseQuality(header, start, end);
+            } else if (matches(header, start, end, DEFLATE.name)) {
+                deflate = parseQuality(header, start, end);
+            } else if (matches(header, start, end, "*")) {
+                any = parseQuality(header, start, end);
+            }
+            start = end + 1;
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    /**
+     * Returns the name of the coding used in the Content-Encoding header.
+     *
+     * @return coding name
+     */
+    public String getName() {
+        return name;
+    }
+}
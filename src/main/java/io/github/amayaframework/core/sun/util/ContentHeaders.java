@@ -0,0 +1,111 @@
+package io.github.amayaframework.core.sun.util;
+
+import io.github.amayaframework.http.ContentType;
+import io.github.amayaframework.http.HttpUtil;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>A class caching the values of the Content-Type header.</p>
+ * <p>Response headers are generated once for each pair of content type and charset. Request headers are parsed
+ * once for each distinct header value, up to {@link #MAX_PARSED_SIZE} values, which covers the few media types
+ * an application usually receives, while arbitrary values sent by clients cannot grow the cache.</p>
+ */
+public final class ContentHeaders {
+    /**
+     * The maximum number of parsed request header values kept in the cache.
+     */
+    public static final int MAX_PARSED_SIZE = 256;
+    private static final ContentType[] TYPES = ContentType.values();
+    private static final ConcurrentMap<Charset, String[]> GENERATED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, MediaType> PARSED = new ConcurrentHashMap<>();
+
+    private ContentHeaders() {
+    }
+
+    /**
+     * Returns the Content-Type header value for the specified content type and charset.
+     * The charset is specified only for string types.
+     *
+     * @param type    content type
+     * @param charset charset of string content
+     * @return header value
+     */
+    public static String get(ContentType type, Charset charset) {
+        if (!type.isString()) {
+            return type.getHeader();
+        }
+        String[] headers = GENERATED.get(charset);
+        if (headers == null) {
+            headers = GENERATED.computeIfAbsent(charset, k -> new String[TYPES.length]);
+        }
+        int index = type.ordinal();
+        String ret = headers[index];
+        if (ret == null) {
+            // Concurrent threads may generate the same value, which is harmless
+            ret = HttpUtil.generateContentHeader(type, charset);
+            headers[index] = ret;
+        }
+        return ret;
+    }
+
+    private static MediaType doParse(String header, Charset charset) {
+        int position = header.indexOf(';');
+        if (position < 0) {
+            return new MediaType(header, null, charset);
+        }
+        String type = header.substring(0, position);
+        return new MediaType(type, HttpUtil.parseCharsetHeader(header.substring(position + 1), charset), charset);
+    }
+
+    /**
+     * Parses the Content-Type request header value.
+     *
+     * @param header  header value, must be not null
+     * @param charset charset used when it cannot be taken from the header
+     * @return {@link MediaType} instance
+     */
+    public static MediaType parse(String header, Charset charset) {
+        MediaType ret = PARSED.get(header);
+        if (ret != null && ret.fallback == charset) {
+            return ret;
+        }
+        ret = doParse(header, charset);
+        if (PARSED.size() < MAX_PARSED_SIZE) {
+            PARSED.put(header, ret);
+        }
+        return ret;
+    }
+
+    public static final class MediaType {
+        private final String type;
+        private final Charset charset;
+        private final Charset fallback;
+
+        MediaType(String type, Charset charset, Charset fallback) {
+            this.type = type;
+            this.charset = charset;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Returns the media type without parameters.
+         *
+         * @return media type
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Returns the charset specified by the header.
+         *
+         * @return {@link Charset} instance or null, if the header has no parameters
+         */
+        public Charset getCharset() {
+            return charset;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of {@link Deflater} instances with the same settings.
+ * Deflaters are reset when returned, the ones that do not fit into the pool are released immediately.
+ */
+public class DeflaterPool {
+    private final BlockingQueue<Deflater> deflaters;
+    private final int level;
+    private final boolean nowrap;
+
+    public DeflaterPool(int level, boolean nowrap, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pool capacity must be positive");
+        }
+        this.deflaters = new ArrayBlockingQueue<>(capacity);
+        this.level = level;
+        this.nowrap = nowrap;
+    }
+
+    /**
+     * Takes a deflater from the pool or creates a new one, if the pool is empty.
+     *
+     * @return {@link Deflater} instance
+     */
+    public Deflater acquire() {
+        Deflater ret = deflaters.poll();
+        if (ret == null) {
+            ret = new Deflater(level, nowrap);
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the deflater to the pool. The deflater must not be used after that.
+     *
+     * @param deflater deflater to be returned
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+}
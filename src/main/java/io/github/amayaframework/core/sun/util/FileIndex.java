@@ -0,0 +1,212 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.io.IOException;
+import java.net.FileNameMap;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>An in-memory index of the metadata of files located in the specified directory.</p>
+ * <p>An entry is created on the first request of a file and is trusted for the refresh interval,
+ * after which the file attributes are read again. Thus, most requests are answered without
+ * accessing the file system.</p>
+ * <p>Entries are keyed by the normalized path of the file, so different spellings of the same name share
+ * one entry, and only existing files get entries. When the number of entries reaches the maximum,
+ * the entries not checked during the refresh interval are removed, and if all entries are recent,
+ * the new entry is not kept.</p>
+ */
+public class FileIndex {
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    private static final String DEFAULT_TYPE = "application/octet-stream";
+    private static final String INDEX_FILE = "index.html";
+    private static final FileNameMap TYPES = URLConnection.getFileNameMap();
+    private final Map<Path, Entry> entries;
+    private final AtomicBoolean evicting;
+    private final Path root;
+    private final long refreshInterval;
+    private final int maxSize;
+
+    /**
+     * Creates an index of the specified directory.
+     *
+     * @param root            directory containing files, must be not null
+     * @param refreshInterval time in milliseconds during which the entry is considered actual
+     * @param maxSize         maximum number of entries, must be positive
+     */
+    public FileIndex(Path root, long refreshInterval, int maxSize) {
+        if (refreshInterval < 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid refresh interval or index size");
+        }
+        this.entries = new ConcurrentHashMap<>();
+        this.evicting = new AtomicBoolean();
+        this.root = Objects.requireNonNull(root).toAbsolutePath().normalize();
+        this.refreshInterval = TimeUnit.MILLISECONDS.toNanos(refreshInterval);
+        this.maxSize = maxSize;
+    }
+
+    public FileIndex(Path root, long refreshInterval) {
+        this(root, refreshInterval, DEFAULT_MAX_SIZE);
+    }
+
+    private Path resolve(String name) {
+        Path ret = root.resolve(name).normalize();
+        if (!ret.startsWith(root)) {
+            return null;
+        }
+        return ret;
+    }
+
+    private Entry read(Path path, long now) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return null;
+        }
+        if (attributes.isDirectory()) {
+            return read(path.resolve(INDEX_FILE), now);
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        return new Entry(path, attributes.size(), attributes.lastModifiedTime().toMillis(), now);
+    }
+
+    /**
+     * Finds the entry describing the file with the specified name relative to the root directory.
+     *
+     * @param name relative file name
+     * @return {@link Entry} instance or null, if there is no such file
+     */
+    public Entry get(String name) {
+        Path path = resolve(name);
+        if (path == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Entry ret = entries.get(path);
+        if (ret != null && now - ret.checked < refreshInterval) {
+            return ret;
+        }
+        Entry found = read(path, now);
+        if (found == null) {
+            entries.remove(path);
+            return null;
+        }
+        if (ret != null && ret.size == found.size && ret.lastModified == found.lastModified) {
+            ret.checked = now;
+            return ret;
+        }
+        if (ret == null && entries.size() >= maxSize) {
+            evict(now);
+            if (entries.size() >= maxSize) {
+                return found;
+            }
+        }
+        entries.put(path, found);
+        return found;
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (now - iterator.next().checked >= refreshInterval) {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all entries from the index.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public static final class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final String lastModifiedHeader;
+        private final String tag;
+        private final String type;
+        private volatile long checked;
+
+        Entry(Path path, long size, long lastModified, long checked) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.lastModifiedHeader = DateTimeFormatter.RFC_1123_DATE_TIME
+                    .format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC));
+            this.tag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+            String type = TYPES.getContentTypeFor(path.getFileName().toString());
+            this.type = type == null ? DEFAULT_TYPE : type;
+            this.checked = checked;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the time of the last modification of the file in milliseconds.
+         *
+         * @return epoch milliseconds
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns the time of the last modification of the file formatted for the Last-Modified header.
+         *
+         * @return formatted date
+         */
+        public String getLastModifiedHeader() {
+            return lastModifiedHeader;
+        }
+
+        /**
+         * Returns the strong entity tag built from the size and the modification time of the file.
+         *
+         * @return quoted tag
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.amayaframework.core.sun.util;
+
+/**
+ * <p>A class containing the names of the http headers used by the sun implementation.</p>
+ * <p>The names are written in the form to which {@link io.github.amayaframework.http.HeaderMap} normalizes keys
+ * (the first letter is capitalized, the rest are lowercase), and the same constant instances are used
+ * for all lookups, so the normalization finds nothing to change.</p>
+ */
+public final class HttpHeaders {
+    public static final String ACCEPT_ENCODING = "Accept-encoding";
+    public static final String ACCEPT_RANGES = "Accept-ranges";
+    public static final String ALLOW = "Allow";
+    public static final String AUTHORIZATION = "Authorization";
+    public static final String CACHE_CONTROL = "Cache-control";
+    public static final String CONNECTION = "Connection";
+    public static final String CONTENT_ENCODING = "Content-encoding";
+    public static final String CONTENT_LENGTH = "Content-length";
+    public static final String CONTENT_LOCATION = "Content-location";
+    public static final String CONTENT_RANGE = "Content-range";
+    public static final String CONTENT_TYPE = "Content-type";
+    public static final String COOKIE = "Cookie";
+    public static final String DATE = "Date";
+    public static final String ETAG = "Etag";
+    public static final String EXPIRES = "Expires";
+    public static final String IF_MODIFIED_SINCE = "If-modified-since";
+    public static final String IF_NONE_MATCH = "If-none-match";
+    public static final String IF_RANGE = "If-range";
+    public static final String LAST_MODIFIED = "Last-modified";
+    public static final String RANGE = "Range";
+    public static final String RETRY_AFTER = "Retry-after";
+    public static final String SET_COOKIE = "Set-cookie";
+    public static final String VARY = "Vary";
+
+    private HttpHeaders() {
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that fails with {@link BodyTooLargeException} as soon as more than
+ * the specified number of bytes is read from the underlying stream.
+ */
+public final class LimitedInputStream extends FilterInputStream {
+    private final long limit;
+    private long remaining;
+
+    public LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+        this.remaining = limit;
+    }
+
+    private void check() throws BodyTooLargeException {
+        if (remaining < 0) {
+            throw new BodyTooLargeException(limit);
+        }
+    }
+
+    private long allowance() {
+        // One byte past the limit is requested to detect the excess without waiting for the next call
+        return remaining == Long.MAX_VALUE ? remaining : remaining + 1;
+    }
+
+    @Override
+    public int read() throws IOException {
+        check();
+        int ret = in.read();
+        if (ret >= 0) {
+            --remaining;
+            check();
+        }
+        return ret;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        check();
+        int ret = in.read(b, off, (int) Math.min(len, allowance()));
+        if (ret > 0) {
+            remaining -= ret;
+            check();
+        }
+        return ret;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        check();
+        long ret = in.skip(Math.min(n, allowance()));
+        remaining -= ret;
+        check();
+        return ret;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>A compressed prefix tree mapping strings to values.</p>
+ * <p>The cost of a lookup depends only on the length of the key, not on the number of stored values.
+ * The tree is not thread-safe for modification, but can be safely read by many threads
+ * after it has been filled and published.</p>
+ *
+ * @param <T> type of values
+ */
+public final class RadixTree<T> {
+    private final Node<T> root;
+    private int size;
+
+    public RadixTree() {
+        this.root = new Node<>("");
+    }
+
+    private static int commonLength(String label, String key, int start) {
+        int length = Math.min(label.length(), key.length() - start);
+        int ret = 0;
+        while (ret < length && label.charAt(ret) == key.charAt(start + ret)) {
+            ++ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Associates the value with the key, replacing the previous value.
+     *
+     * @param key   key, must be not null
+     * @param value value, must be not null
+     * @return previous value or null
+     */
+    public T put(String key, T value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        Node<T> node = root;
+        int position = 0;
+        int length = key.length();
+        while (position < length) {
+            char first = key.charAt(position);
+            Node<T> child = node.getChild(first);
+            if (child == null) {
+                node.addChild(new Node<>(key.substring(position), value));
+                ++size;
+                return null;
+            }
+            String label = child.label;
+            int common = commonLength(label, key, position);
+            if (common < label.length()) {
+                Node<T> middle = new Node<>(label.substring(0, common));
+                child.label = label.substring(common);
+                middle.addChild(child);
+                node.replaceChild(first, middle);
+                child = middle;
+            }
+            node = child;
+            position += common;
+        }
+        T ret = node.value;
+        node.value = value;
+        if (ret == null) {
+            ++size;
+        }
+        return ret;
+    }
+
+    /**
+     * Finds the value associated with exactly the specified key.
+     *
+     * @param key key to be found
+     * @return value or null, if there is no value
+     */
+    public T get(String key) {
+        Node<T> node = root;
+        int position = 0;
+        int length = key.length();
+        while (position < length) {
+            Node<T> child = node.getChild(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return null;
+            }
+            position += child.label.length();
+            node = child;
+        }
+        return node.value;
+    }
+
+    /**
+     * Finds the value associated with the longest key that is a prefix of the specified string.
+     *
+     * @param string string to be matched
+     * @return value or null, if no key is a prefix of the string
+     */
+    public T findLongestPrefix(String string) {
+        Node<T> node = root;
+        T ret = root.value;
+        int position = 0;
+        int length = string.length();
+        while (position < length) {
+            Node<T> child = node.getChild(string.charAt(position));
+            if (child == null || !string.startsWith(child.label, position)) {
+                break;
+            }
+            position += child.label.length();
+            node = child;
+            if (node.value != null) {
+                ret = node.value;
+            }
+        }
+        return ret;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+        private static final char[] EMPTY_KEYS = new char[0];
+        private String label;
+        private T value;
+        private char[] keys;
+        private Node<T>[] children;
+
+        Node(String label, T value) {
+            this.label = label;
+            this.value = value;
+            this.keys = EMPTY_KEYS;
+        }
+
+        Node(String label) {
+            this(label, null);
+        }
+
+        Node<T> getChild(char key) {
+            char[] keys = this.keys;
+            for (int i = 0; i < keys.length; ++i) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        // Generic arrays cannot be created directly; the array holds only the nodes of this tree, so the cast is safe
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <T> Node<T>[] newArray(int length) {
+            return (Node<T>[]) new Node[length];
+        }
+
+        void addChild(Node<T> child) {
+            int length = keys.length;
+            keys = Arrays.copyOf(keys, length + 1);
+            children = children == null ? newArray(1) : Arrays.copyOf(children, length + 1);
+            keys[length] = child.label.charAt(0);
+            children[length] = child;
+        }
+
+        void replaceChild(char key, Node<T> child) {
+            for (int i = 0; i < keys.length; ++i) {
+                if (keys[i] == key) {
+                    children[i] = child;
+                    return;
+                }
+            }
+        }
+    }
+}
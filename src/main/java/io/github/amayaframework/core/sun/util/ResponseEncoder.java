@@ -0,0 +1,308 @@
+package io.github.amayaframework.core.sun.util;
+
+import io.github.amayaframework.http.HttpCode;
+import io.github.amayaframework.server.interfaces.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * <p>A per-thread engine that encodes response bodies and writes them to the exchange.</p>
+ * <p>Character bodies are encoded exactly once into a reusable buffer, the size of which is then used
+ * as the response length, so the body is written with a single call. Buffers larger than
+ * {@link #MAX_RETAINED_SIZE} are used only once and are not kept by the thread.</p>
+ */
+public final class ResponseEncoder {
+    /**
+     * The maximum size of the buffer that will be retained by the thread between responses.
+     */
+    public static final int MAX_RETAINED_SIZE = 64 * 1024;
+    private static final int INITIAL_SIZE = 1024;
+    private static final int SCRATCH_SIZE = 8 * 1024;
+    private static final ThreadLocal<ResponseEncoder> ENCODERS = ThreadLocal.withInitial(ResponseEncoder::new);
+    private final Map<Charset, CharsetEncoder> encoders;
+    private Charset lastCharset;
+    private CharsetEncoder lastEncoder;
+    private ByteBuffer buffer;
+    private ByteBuffer output;
+    private byte[] scratch;
+    private CRC32 checksum;
+
+    private ResponseEncoder() {
+        this.encoders = new HashMap<>();
+        this.buffer = ByteBuffer.allocate(INITIAL_SIZE);
+        this.output = ByteBuffer.allocate(INITIAL_SIZE);
+    }
+
+    /**
+     * Returns the encoder bound to the current thread.
+     *
+     * @return {@link ResponseEncoder} instance
+     */
+    public static ResponseEncoder get() {
+        return ENCODERS.get();
+    }
+
+    /**
+     * Sends the response headers and the body in the specified charset.
+     * Supports {@link CharSequence}, byte[] and {@link ByteBuffer} bodies directly,
+     * any other object will be converted to string.
+     *
+     * @param exchange exchange to be used
+     * @param charset  charset of character bodies
+     * @param code     response code
+     * @param body     response body, may be null
+     * @return number of bytes of the sent body
+     * @throws IOException if an I/O error occurs
+     */
+    public static long send(HttpExchange exchange, Charset charset, HttpCode code, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(code, 0);
+            return 0;
+        }
+        if (body instanceof byte[]) {
+            byte[] bytes = (byte[]) body;
+            exchange.sendResponseHeaders(code, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            return bytes.length;
+        }
+        if (body instanceof ByteBuffer) {
+            return send(exchange, code, ((ByteBuffer) body).duplicate());
+        }
+        CharSequence sequence = body instanceof CharSequence ? (CharSequence) body : body.toString();
+        return send(exchange, code, get().encode(sequence, charset));
+    }
+
+    /**
+     * Sends the response headers and the body in the specified charset, compressing it with the
+     * specified compressor, if the size of the encoded body is not less than {@link Compressor#getMinSize()}.
+     *
+     * @param exchange   exchange to be used
+     * @param charset    charset of character bodies
+     * @param code       response code
+     * @param body       response body, may be null
+     * @param compressor compressor to be used, may be null
+     * @return number of bytes of the sent body, after compression
+     * @throws IOException if an I/O error occurs
+     */
+    public static long send(HttpExchange exchange,
+                            Charset charset,
+                            HttpCode code,
+                            Object body,
+                            Compressor compressor) throws IOException {
+        if (compressor == null || body == null) {
+            return send(exchange, charset, code, body);
+        }
+        ByteBuffer buffer;
+        if (body instanceof byte[]) {
+            buffer = ByteBuffer.wrap((byte[]) body);
+        } else if (body instanceof ByteBuffer) {
+            buffer = ((ByteBuffer) body).duplicate();
+        } else {
+            CharSequence sequence = body instanceof CharSequence ? (CharSequence) body : body.toString();
+            buffer = get().encode(sequence, charset);
+        }
+        if (buffer.remaining() < compressor.getMinSize() || !buffer.hasArray()) {
+            return send(exchange, code, buffer);
+        }
+        ByteBuffer compressed = compressor.compress(buffer);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, compressor.getEncoding().getName());
+        return send(exchange, code, compressed);
+    }
+
+    /**
+     * Sends the response headers and the remaining content of the buffer.
+     * The position of the buffer will be moved to its limit.
+     *
+     * @param exchange exchange to be used
+     * @param code     response code
+     * @param body     buffer containing the body
+     * @return number of bytes of the sent body
+     * @throws IOException if an I/O error occurs
+     */
+    public static long send(HttpExchange exchange, HttpCode code, ByteBuffer body) throws IOException {
+        int ret = body.remaining();
+        exchange.sendResponseHeaders(code, ret);
+        write(exchange.getResponseBody(), body);
+        return ret;
+    }
+
+    /**
+     * Writes the remaining content of the buffer to the stream.
+     * The position of the buffer will be moved to its limit.
+     *
+     * @param stream stream to be written
+     * @param body   buffer containing the data
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(OutputStream stream, ByteBuffer body) throws IOException {
+        if (body.hasArray()) {
+            int remaining = body.remaining();
+            stream.write(body.array(), body.arrayOffset() + body.position(), remaining);
+            body.position(body.limit());
+            return;
+        }
+        byte[] scratch = get().getScratch();
+        while (body.hasRemaining()) {
+            int length = Math.min(scratch.length, body.remaining());
+            body.get(scratch, 0, length);
+            stream.write(scratch, 0, length);
+        }
+    }
+
+    private static int estimate(CharsetEncoder encoder, int length) {
+        long ret = (long) Math.ceil(length * (double) encoder.averageBytesPerChar()) + 16;
+        return (int) Math.min(ret, Integer.MAX_VALUE - 8);
+    }
+
+    private CharsetEncoder getEncoder(Charset charset) {
+        if (charset == lastCharset) {
+            return lastEncoder;
+        }
+        CharsetEncoder ret = encoders.get(charset);
+        if (ret == null) {
+            ret = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            encoders.put(charset, ret);
+        }
+        lastCharset = charset;
+        lastEncoder = ret;
+        return ret;
+    }
+
+    /**
+     * Returns the scratch array owned by the current thread, which can be used for intermediate copying.
+     *
+     * @return byte array
+     */
+    public byte[] getScratch() {
+        if (scratch == null) {
+            scratch = new byte[SCRATCH_SIZE];
+        }
+        return scratch;
+    }
+
+    /**
+     * Returns a cleared buffer with at least the specified capacity.
+     * The buffer is owned by the current thread and stays valid until the next call of this encoder.
+     *
+     * @param capacity required capacity
+     * @return {@link ByteBuffer} instance
+     */
+    public ByteBuffer getBuffer(int capacity) {
+        if (buffer.capacity() >= capacity) {
+            buffer.clear();
+            return buffer;
+        }
+        ByteBuffer ret = ByteBuffer.allocate(capacity);
+        if (capacity <= MAX_RETAINED_SIZE) {
+            buffer = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a reset checksum owned by the current thread.
+     *
+     * @return {@link CRC32} instance
+     */
+    public CRC32 getChecksum() {
+        if (checksum == null) {
+            checksum = new CRC32();
+        } else {
+            checksum.reset();
+        }
+        return checksum;
+    }
+
+    /**
+     * Returns a cleared secondary buffer with at least the specified capacity, which can be used as
+     * a destination when the primary buffer holds the source data (for example, during compression).
+     * The buffer is owned by the current thread and stays valid until the next call of this encoder.
+     *
+     * @param capacity required capacity
+     * @return {@link ByteBuffer} instance
+     */
+    public ByteBuffer getOutputBuffer(int capacity) {
+        if (output.capacity() >= capacity) {
+            output.clear();
+            return output;
+        }
+        ByteBuffer ret = ByteBuffer.allocate(capacity);
+        if (capacity <= MAX_RETAINED_SIZE) {
+            output = ret;
+        }
+        return ret;
+    }
+
+    private static ByteBuffer expand(ByteBuffer old) {
+        int capacity = old.capacity();
+        int size = capacity > (Integer.MAX_VALUE - 8) / 2 ? Integer.MAX_VALUE - 8 : capacity * 2;
+        if (size == capacity) {
+            throw new OutOfMemoryError("Response body is too large");
+        }
+        old.flip();
+        ByteBuffer ret = ByteBuffer.allocate(size);
+        ret.put(old);
+        return ret;
+    }
+
+    private ByteBuffer grow(ByteBuffer old) {
+        ByteBuffer ret = expand(old);
+        if (ret.capacity() <= MAX_RETAINED_SIZE) {
+            buffer = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Doubles the capacity of the buffer obtained by {@link #getOutputBuffer(int)}, keeping its written content.
+     *
+     * @param old buffer to be expanded
+     * @return {@link ByteBuffer} instance
+     */
+    public ByteBuffer growOutputBuffer(ByteBuffer old) {
+        ByteBuffer ret = expand(old);
+        if (ret.capacity() <= MAX_RETAINED_SIZE) {
+            output = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Encodes the char sequence into a buffer owned by the current thread.
+     * The returned buffer is ready to be read and stays valid until the next call of this encoder.
+     *
+     * @param body    sequence to be encoded
+     * @param charset charset to be used
+     * @return {@link ByteBuffer} containing encoded bytes
+     */
+    public ByteBuffer encode(CharSequence body, Charset charset) {
+        CharsetEncoder encoder = getEncoder(charset);
+        ByteBuffer out = getBuffer(estimate(encoder, body.length()));
+        CharBuffer in = body instanceof CharBuffer ? ((CharBuffer) body).duplicate() : CharBuffer.wrap(body);
+        encoder.reset();
+        CoderResult result = encoder.encode(in, out, true);
+        while (result.isOverflow()) {
+            out = grow(out);
+            result = encoder.encode(in, out, true);
+        }
+        result = encoder.flush(out);
+        while (result.isOverflow()) {
+            out = grow(out);
+            result = encoder.flush(out);
+        }
+        out.flip();
+        return out;
+    }
+}
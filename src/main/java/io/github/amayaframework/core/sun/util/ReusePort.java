@@ -0,0 +1,64 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.io.IOException;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * <p>A class enabling the SO_REUSEPORT option (Java 9+) on the listening channels of servers
+ * without requiring it at compile time.</p>
+ * <p>With this option, several servers can be bound to the same address, and the kernel distributes
+ * incoming connections between them, so each server accepts and dispatches only a part of them.
+ * The servers do not expose their channels, so the channel is looked up by {@link ServerChannels}.</p>
+ */
+public final class ReusePort {
+    private static final SocketOption<Boolean> OPTION = findOption();
+    private static final boolean SUPPORTED = checkSupport();
+
+    private ReusePort() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> findOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static boolean checkSupport() {
+        if (OPTION == null) {
+            return false;
+        }
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            return channel.supportedOptions().contains(OPTION);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the current runtime and operating system support SO_REUSEPORT.
+     *
+     * @return true, if the option is available
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * Enables SO_REUSEPORT on the listening channel of the server. Must be called before the server is bound.
+     *
+     * @param server server to be configured
+     * @throws UnsupportedOperationException if the option is not supported or the channel is not found
+     * @throws IOException                   if the option cannot be set
+     */
+    public static void enable(Object server) throws IOException {
+        if (!SUPPORTED) {
+            throw new UnsupportedOperationException("SO_REUSEPORT requires Java 9 or later and OS support");
+        }
+        ServerChannels.find(server).setOption(OPTION, true);
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A class giving access to the listening channels of servers.</p>
+ * <p>The servers do not expose their channels, so the channel is taken from the field of the server
+ * or of its implementation object (a field whose type is declared in the package of the server class).
+ * No other objects are inspected, and the lookup fails unless exactly one channel field is found,
+ * so an unknown server implementation is reported instead of having a wrong channel configured.</p>
+ */
+public final class ServerChannels {
+
+    private ServerChannels() {
+    }
+
+    private static List<Field> getFields(Class<?> clazz) {
+        List<Field> ret = new ArrayList<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    ret.add(field);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static void collectChannels(Object object, List<ServerSocketChannel> channels)
+            throws IllegalAccessException {
+        for (Field field : getFields(object.getClass())) {
+            if (!ServerSocketChannel.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object value = field.get(object);
+            if (value != null) {
+                channels.add((ServerSocketChannel) value);
+            }
+        }
+    }
+
+    private static List<ServerSocketChannel> findChannels(Object server) throws IllegalAccessException {
+        List<ServerSocketChannel> ret = new ArrayList<>();
+        collectChannels(server, ret);
+        if (!ret.isEmpty()) {
+            return ret;
+        }
+        Package owner = server.getClass().getPackage();
+        for (Field field : getFields(server.getClass())) {
+            Class<?> type = field.getType();
+            if (type.isPrimitive() || type.isArray() || type.getPackage() != owner) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object value = field.get(server);
+            if (value != null) {
+                collectChannels(value, ret);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Finds the listening channel of the server.
+     *
+     * @param server server to be inspected
+     * @return {@link ServerSocketChannel} instance
+     * @throws UnsupportedOperationException if there is no single channel or it cannot be accessed
+     */
+    public static ServerSocketChannel find(Object server) {
+        List<ServerSocketChannel> found;
+        try {
+            found = findChannels(server);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new UnsupportedOperationException("Unable to access the channel of " + server.getClass(), e);
+        }
+        if (found.size() != 1) {
+            throw new UnsupportedOperationException(
+                    "Expected one listening channel in " + server.getClass() + ", found " + found.size()
+            );
+        }
+        return found.get(0);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.amayaframework.core.sun.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>A class providing access to virtual threads on Java 21+ without requiring them at compile time.</p>
+ * <p>Note that a virtual thread blocked inside a synchronized block or method pins its carrier thread,
+ * which reduces the number of requests that can actually be processed at the same time.
+ * Pinning can be detected by running the application with {@code -Djdk.tracePinnedThreads=short}
+ * or by recording the {@code jdk.VirtualThreadPinned} flight recorder event.</p>
+ */
+public final class VirtualThreads {
+    /**
+     * The name of the system property enabling the tracing of pinned virtual threads.
+     */
+    public static final String TRACE_PINNED_PROPERTY = "jdk.tracePinnedThreads";
+    private static final MethodHandle FACTORY = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    private static MethodHandle findFactory() {
+        try {
+            MethodType type = MethodType.methodType(ExecutorService.class);
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the current runtime provides the virtual thread API. On Java 19 and 20 the API is a preview
+     * one, and {@link #newExecutor()} still fails unless the runtime is started with {@code --enable-preview}.
+     *
+     * @return true, if virtual threads are available
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Checks if the tracing of pinned virtual threads is enabled.
+     *
+     * @return true, if the {@link #TRACE_PINNED_PROPERTY} property is set
+     */
+    public static boolean isPinningTraced() {
+        return System.getProperty(TRACE_PINNED_PROPERTY) != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     *
+     * @return {@link ExecutorService} instance
+     * @throws UnsupportedOperationException if the current runtime does not support virtual threads
+     *                                       or they are a disabled preview feature
+     */
+    public static ExecutorService newExecutor() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            return (ExecutorService) FACTORY.invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to create virtual thread executor", e);
+        }
+    }
+}
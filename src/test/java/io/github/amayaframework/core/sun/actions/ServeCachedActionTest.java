@@ -0,0 +1,60 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.methods.HttpMethod;
+import io.github.amayaframework.core.pipeline.RouteData;
+import io.github.amayaframework.core.sun.handlers.ResponseCache;
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.http.HeaderMap;
+import io.github.amayaframework.http.HttpCode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ServeCachedActionTest {
+    private static final byte[] BODY = "cached".getBytes(StandardCharsets.UTF_8);
+
+    private static MemoryExchange serve(String raw) throws Throwable {
+        ResponseCache cache = new ResponseCache(16);
+        String[] headers = {
+                HttpHeaders.CONTENT_TYPE, "text/plain",
+                HttpHeaders.CACHE_CONTROL, "max-age=60",
+                HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING
+        };
+        cache.put("/item", HttpCode.OK, headers, BODY, "\"tag\"", 60_000);
+        MemoryExchange exchange = new MemoryExchange(MemoryRequest.parse(raw));
+        RouteData route = new RouteData(HttpMethod.GET, "/item", null);
+        new ServeCachedAction(cache).execute(new SunRequestData(exchange, route, StandardCharsets.UTF_8));
+        return exchange;
+    }
+
+    @Test
+    public void testNotModifiedKeepsHeaders() throws Throwable {
+        MemoryExchange exchange = serve("GET /item HTTP/1.1\r\nIf-None-Match: \"tag\"\r\n\r\n");
+        HeaderMap headers = exchange.getResponseHeaders();
+        assertEquals(HttpCode.NOT_MODIFIED, exchange.getResponseCode());
+        assertEquals("\"tag\"", headers.getFirst(HttpHeaders.ETAG));
+        assertEquals("max-age=60", headers.getFirst(HttpHeaders.CACHE_CONTROL));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, headers.getFirst(HttpHeaders.VARY));
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    public void testHeadHasContentLength() throws Throwable {
+        MemoryExchange exchange = serve("HEAD /item HTTP/1.1\r\n\r\n");
+        assertEquals(HttpCode.OK, exchange.getResponseCode());
+        assertEquals(Integer.toString(BODY.length), exchange.getResponseHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+        assertEquals(0, exchange.getSink().size());
+    }
+
+    @Test
+    public void testGetSendsBody() throws Throwable {
+        MemoryExchange exchange = serve("GET /item HTTP/1.1\r\n\r\n");
+        assertEquals(HttpCode.OK, exchange.getResponseCode());
+        assertEquals("cached", exchange.getSink().toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import io.github.amayaframework.http.HttpCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SunOutputStreamTest {
+
+    @Test
+    public void testLargeWriteIsSplit() throws IOException {
+        MemoryExchange exchange = new MemoryExchange(MemoryRequest.of("GET", "/"));
+        RecordingStream output = new RecordingStream();
+        exchange.setStreams(exchange.getRequestBody(), output);
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) i;
+        }
+        SunOutputStream stream = new SunOutputStream(exchange, HttpCode.OK, 1024);
+        stream.write(data);
+        stream.finish();
+        assertTrue(stream.isChunked());
+        assertEquals(1024, output.largest);
+        assertArrayEquals(data, output.toByteArray());
+    }
+
+    private static final class RecordingStream extends ByteArrayOutputStream {
+        private int largest;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            largest = Math.max(largest, len);
+            super.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.amayaframework.core.sun.actions;
+
+import io.github.amayaframework.core.methods.HttpMethod;
+import io.github.amayaframework.core.pipeline.RouteData;
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SunRequestDataTest {
+    private static SunRequestData data(String raw) {
+        MemoryExchange exchange = new MemoryExchange(MemoryRequest.parse(raw));
+        RouteData route = new RouteData(HttpMethod.POST, "/", null);
+        return new SunRequestData(exchange, route, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testReadBody() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 100_000; ++i) {
+            body.append((char) ('a' + i % 26));
+        }
+        SunRequestData data = data("POST / HTTP/1.1\r\nContent-Length: 100000\r\n\r\n" + body);
+        assertArrayEquals(body.toString().getBytes(StandardCharsets.ISO_8859_1), data.readBody());
+    }
+
+    @Test
+    public void testFalseContentLength() {
+        // Must fail on the missing bytes instead of allocating the declared length
+        SunRequestData data = data("POST / HTTP/1.1\r\nContent-Length: 2000000000\r\n\r\nabc");
+        assertThrows(EOFException.class, data::readBody);
+    }
+}
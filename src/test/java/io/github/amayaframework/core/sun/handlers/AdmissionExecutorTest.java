@@ -0,0 +1,54 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionExecutorTest {
+    @Test
+    public void testRejectedTaskIsNotQueued() {
+        List<Runnable> queue = new ArrayList<>();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        DrainTracker drain = new DrainTracker();
+        AdmissionExecutor executor = new AdmissionExecutor(queue::add, limiter, drain);
+        executor.execute(() -> {
+        });
+        assertEquals(1, queue.size());
+        Thread caller = Thread.currentThread();
+        Thread[] runner = new Thread[1];
+        boolean[] admitted = new boolean[1];
+        executor.execute(() -> {
+            runner[0] = Thread.currentThread();
+            Admission admission = AdmissionExecutor.claim(limiter, drain);
+            admitted[0] = admission.isAdmitted();
+            admission.complete();
+        });
+        // The second task exceeds the limit and is run at once by the dispatching thread
+        assertEquals(1, queue.size());
+        assertSame(caller, runner[0]);
+        assertFalse(admitted[0]);
+        assertEquals(1, limiter.getInFlight());
+        queue.get(0).run();
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, drain.getInFlight());
+    }
+
+    @Test
+    public void testUnclaimedAdmissionIsCompleted() throws InterruptedException {
+        List<Runnable> queue = new ArrayList<>();
+        DrainTracker drain = new DrainTracker();
+        AdmissionExecutor executor = new AdmissionExecutor(queue::add, null, drain);
+        executor.execute(() -> {
+        });
+        assertEquals(1, drain.getInFlight());
+        queue.get(0).run();
+        assertEquals(0, drain.getInFlight());
+        assertTrue(drain.awaitIdle(0));
+    }
+}
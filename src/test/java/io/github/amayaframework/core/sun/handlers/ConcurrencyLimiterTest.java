@@ -0,0 +1,59 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrencyLimiterTest {
+    private static final long MILLISECOND = 1_000_000;
+
+    // Fills the limit, waits for the window to pass and completes all requests with the specified latency
+    private static void round(ConcurrencyLimiter limiter, long latency) throws InterruptedException {
+        int count = limiter.getLimit();
+        for (int i = 0; i < count; ++i) {
+            assertTrue(limiter.tryAcquire());
+        }
+        Thread.sleep(3);
+        for (int i = 0; i < count; ++i) {
+            limiter.release(latency);
+        }
+    }
+
+    @Test
+    public void testRejectsOverLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10, 1000);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+        limiter.release(MILLISECOND);
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testGrowsWhileLatencyIsStable() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100, 1);
+        for (int i = 0; i < 20; ++i) {
+            round(limiter, MILLISECOND);
+        }
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    public void testShrinksWhenLatencyGrows() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(50, 5, 100, 1);
+        for (int i = 0; i < 3; ++i) {
+            round(limiter, MILLISECOND);
+        }
+        int stable = limiter.getLimit();
+        for (int i = 0; i < 30; ++i) {
+            round(limiter, 20 * MILLISECOND);
+        }
+        int limit = limiter.getLimit();
+        assertTrue(limit < stable, "limit " + limit + ", was " + stable);
+        assertTrue(limit >= 5);
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurst() {
+        // One request in 10 seconds, so no token is returned while the test runs
+        RateLimiter limiter = new RateLimiter(0.1, 5, 16, null);
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(0, limiter.tryAcquire("client"));
+        }
+        long wait = limiter.tryAcquire("client");
+        assertTrue(wait > 0 && wait <= 10_000_000_000L);
+        assertEquals(1, limiter.getRejected());
+        // Other clients have their own buckets
+        assertEquals(0, limiter.tryAcquire("other"));
+    }
+
+    @Test
+    public void testOverflowSlot() {
+        RateLimiter limiter = new RateLimiter(0.1, 1, 2, null);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        // Both tracked clients are active, so the new client gets a shared slot instead of a bucket
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(2, limiter.getClients());
+        assertTrue(limiter.tryAcquire("c") > 0);
+    }
+
+    @Test
+    public void testIdleClientsAreSwept() throws InterruptedException {
+        // A bucket is full again 1 ms after its last request
+        RateLimiter limiter = new RateLimiter(1000, 1, 100, null);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(0, limiter.tryAcquire(i));
+        }
+        Thread.sleep(20);
+        // A single sweep checks a bounded number of buckets
+        assertEquals(0, limiter.tryAcquire("new"));
+        assertEquals(100 - 64 + 1, limiter.getClients());
+    }
+}
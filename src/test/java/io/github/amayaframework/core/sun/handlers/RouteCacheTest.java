@@ -0,0 +1,67 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.core.methods.HttpMethod;
+import io.github.amayaframework.core.pipeline.RouteData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RouteCacheTest {
+    private static final RouteData DATA = new RouteData(HttpMethod.GET, "/", null);
+
+    @Test
+    public void testSecondChance() {
+        RouteCache cache = new RouteCache(3);
+        cache.put("GET", "/a", DATA, null);
+        cache.put("GET", "/b", DATA, null);
+        cache.put("GET", "/c", DATA, null);
+        cache.get("GET", "/a");
+        // The cache is full: the used entry gets a second chance, the unused ones are evicted
+        cache.put("GET", "/d", DATA, null);
+        assertNotNull(cache.get("GET", "/a"));
+        assertNull(cache.get("GET", "/b"));
+        assertNull(cache.get("GET", "/c"));
+        assertNotNull(cache.get("GET", "/d"));
+    }
+
+    @Test
+    public void testChanceIsSpent() {
+        RouteCache cache = new RouteCache(2);
+        cache.put("GET", "/a", DATA, null);
+        cache.get("GET", "/a");
+        cache.put("GET", "/b", DATA, null);
+        // Clears the mark of "/a" and evicts "/b"
+        cache.put("GET", "/c", DATA, null);
+        assertNull(cache.get("GET", "/b"));
+        cache.get("GET", "/c");
+        // "/a" has not been used since the previous eviction, so it is evicted now
+        cache.put("GET", "/d", DATA, null);
+        assertNull(cache.get("GET", "/a"));
+        assertNotNull(cache.get("GET", "/c"));
+        assertNotNull(cache.get("GET", "/d"));
+    }
+
+    @Test
+    public void testAllUsedAreCleared() {
+        RouteCache cache = new RouteCache(2);
+        cache.put("GET", "/a", DATA, null);
+        cache.put("GET", "/b", DATA, null);
+        cache.get("GET", "/a");
+        cache.get("GET", "/b");
+        cache.put("GET", "/c", DATA, null);
+        assertNull(cache.get("GET", "/a"));
+        assertNull(cache.get("GET", "/b"));
+        assertNotNull(cache.get("GET", "/c"));
+    }
+
+    @Test
+    public void testMethodsAreSeparate() {
+        RouteCache cache = new RouteCache(1);
+        cache.put("GET", "/a", DATA, null);
+        cache.put("POST", "/a", DATA, null);
+        assertNotNull(cache.get("GET", "/a"));
+        assertNotNull(cache.get("POST", "/a"));
+        assertNull(cache.get("PUT", "/a"));
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.amayaframework.core.sun.handlers;
+
+import io.github.amayaframework.core.sun.memory.MemoryExchange;
+import io.github.amayaframework.core.sun.memory.MemoryRequest;
+import io.github.amayaframework.core.sun.memory.MemoryServer;
+import io.github.amayaframework.core.sun.util.FileIndex;
+import io.github.amayaframework.core.sun.util.HttpHeaders;
+import io.github.amayaframework.http.HttpCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StaticHandlerTest {
+    private static final String CONTENT = "0123456789";
+    private Path root;
+    private StaticHandler handler;
+    private MemoryServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("static");
+        Files.write(root.resolve("a.txt"), CONTENT.getBytes(StandardCharsets.UTF_8));
+        handler = new StaticHandler("/static", root, 0);
+        server = new MemoryServer();
+        server.createContext("/static", handler);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.delete(root.resolve("a.txt"));
+        Files.delete(root);
+    }
+
+    private MemoryExchange get(String headers) throws IOException {
+        return server.handle(MemoryRequest.parse("GET /static/a.txt HTTP/1.1\r\n" + headers + "\r\n"));
+    }
+
+    private FileIndex.Entry entry() {
+        return handler.getIndex().get("a.txt");
+    }
+
+    private static String body(MemoryExchange exchange) {
+        return exchange.getSink().toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFullFile() throws IOException {
+        MemoryExchange exchange = get("");
+        assertEquals(HttpCode.OK, exchange.getResponseCode());
+        assertEquals(CONTENT, body(exchange));
+        assertEquals("bytes", exchange.getResponseHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        MemoryExchange exchange = get("Range: bytes=2-5\r\n");
+        assertEquals(HttpCode.PARTIAL_CONTENT, exchange.getResponseCode());
+        assertEquals("2345", body(exchange));
+        assertEquals("bytes 2-5/10", exchange.getResponseHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testOpenAndSuffixRanges() throws IOException {
+        assertEquals("789", body(get("Range: bytes=7-\r\n")));
+        assertEquals("789", body(get("Range: bytes=-3\r\n")));
+        // The end of the range is limited by the size of the file
+        assertEquals("89", body(get("Range: bytes=8-100\r\n")));
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws IOException {
+        MemoryExchange exchange = get("Range: bytes=20-30\r\n");
+        assertEquals(HttpCode.REQUESTED_RANGE_NOT_SATISFIABLE, exchange.getResponseCode());
+        assertEquals("bytes */10", exchange.getResponseHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void testMultipleRangesSendWholeFile() throws IOException {
+        MemoryExchange exchange = get("Range: bytes=0-1,4-5\r\n");
+        assertEquals(HttpCode.OK, exchange.getResponseCode());
+        assertEquals(CONTENT, body(exchange));
+    }
+
+    @Test
+    public void testIfRange() throws IOException {
+        String tag = entry().getTag();
+        assertEquals(HttpCode.PARTIAL_CONTENT, get("Range: bytes=0-1\r\nIf-Range: " + tag + "\r\n").getResponseCode());
+        // A changed representation makes the range be ignored
+        MemoryExchange exchange = get("Range: bytes=0-1\r\nIf-Range: \"other\"\r\n");
+        assertEquals(HttpCode.OK, exchange.getResponseCode());
+        assertEquals(CONTENT, body(exchange));
+    }
+
+    @Test
+    public void testIfNoneMatch() throws IOException {
+        MemoryExchange exchange = get("If-None-Match: " + entry().getTag() + "\r\n");
+        assertEquals(HttpCode.NOT_MODIFIED, exchange.getResponseCode());
+        assertEquals(0, exchange.getSink().size());
+        assertEquals(HttpCode.OK, get("If-None-Match: \"other\"\r\n").getResponseCode());
+    }
+
+    @Test
+    public void testIfModifiedSince() throws IOException {
+        FileIndex.Entry entry = entry();
+        assertEquals(HttpCode.NOT_MODIFIED,
+                get("If-Modified-Since: " + entry.getLastModifiedHeader() + "\r\n").getResponseCode());
+        String earlier = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.ofEpochMilli(entry.getLastModified() - 3_600_000).atZone(ZoneOffset.UTC));
+        MemoryExchange exchange = get("If-Modified-Since: " + earlier + "\r\n");
+        assertEquals(HttpCode.OK, exchange.getResponseCode());
+        assertEquals(CONTENT, body(exchange));
+    }
+
+    @Test
+    public void testIfNoneMatchTakesPrecedence() throws IOException {
+        // If-Modified-Since is ignored when If-None-Match is present
+        String headers = "If-None-Match: \"other\"\r\nIf-Modified-Since: " + entry().getLastModifiedHeader() + "\r\n";
+        assertEquals(HttpCode.OK, get(headers).getResponseCode());
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.amayaframework.core.sun.multipart;
+
+import io.github.amayaframework.core.sun.util.BodyTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultipartParserTest {
+    private static final String BOUNDARY = "XyZ123";
+
+    private static byte[] body(byte[]... contents) throws IOException {
+        ByteArrayOutputStream ret = new ByteArrayOutputStream();
+        for (int i = 0; i < contents.length; ++i) {
+            String headers = "--" + BOUNDARY + "\r\n" +
+                    "Content-Disposition: form-data; name=\"field" + i + "\"\r\n\r\n";
+            ret.write(headers.getBytes(StandardCharsets.ISO_8859_1));
+            ret.write(contents[i]);
+            ret.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        ret.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        return ret.toByteArray();
+    }
+
+    private static byte[] content(int size) {
+        byte[] ret = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            ret[i] = (byte) ('a' + i % 26);
+        }
+        return ret;
+    }
+
+    @Test
+    public void testDelimiterSplitAcrossReads() throws IOException {
+        byte[] first = content(20_000);
+        byte[] second = content(3);
+        byte[] body = body(first, second);
+        // Each read returns a few bytes, so every delimiter is split between several reads and compactions
+        for (int step : new int[]{1, 7, 4093}) {
+            try (MultipartForm form = new MultipartParser(1 << 20, null).parse(new Trickle(body, step), BOUNDARY)) {
+                assertEquals(2, form.getParts().size());
+                assertArrayEquals(first, form.getPart("field0").getBytes());
+                assertArrayEquals(second, form.getPart("field1").getBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testCrlfInsideContent() throws IOException {
+        byte[] content = ("line\r\n\r\n--" + BOUNDARY.substring(0, 3) + "\r\n--\r\n").getBytes(StandardCharsets.UTF_8);
+        try (MultipartForm form = new MultipartParser().parse(new Trickle(body(content), 5), BOUNDARY)) {
+            assertEquals(1, form.getParts().size());
+            assertArrayEquals(content, form.getPart("field0").getBytes());
+        }
+    }
+
+    @Test
+    public void testSpillThresholdEdge() throws IOException {
+        int threshold = 1024;
+        byte[] exact = content(threshold);
+        byte[] above = content(threshold + 1);
+        MultipartParser parser = new MultipartParser(threshold, null);
+        try (MultipartForm form = parser.parse(new ByteArrayInputStream(body(exact, above)), BOUNDARY)) {
+            Part inMemory = form.getPart("field0");
+            Part spilled = form.getPart("field1");
+            assertTrue(inMemory.isInMemory());
+            assertEquals(threshold, inMemory.getSize());
+            assertFalse(spilled.isInMemory());
+            assertEquals(threshold + 1, spilled.getSize());
+            assertArrayEquals(above, Files.readAllBytes(spilled.getFile()));
+            Path file = spilled.getFile();
+            form.close();
+            assertFalse(Files.exists(file));
+        }
+    }
+
+    @Test
+    public void testTruncatedSpillIsDeleted() throws IOException {
+        Path directory = Files.createTempDirectory("amaya-test");
+        try {
+            byte[] body = body(content(10), content(4096));
+            // The body ends inside the second part, after it has been moved to a file
+            byte[] truncated = Arrays.copyOf(body, body.length - 100);
+            MultipartParser parser = new MultipartParser(1024, directory);
+            assertThrows(IOException.class, () -> parser.parse(new ByteArrayInputStream(truncated), BOUNDARY));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testMemoryLimit() throws IOException {
+        MultipartParser parser = new MultipartParser(1024, null, 16, 1500);
+        byte[] body = body(content(1000), content(1000), content(10));
+        try (MultipartForm form = parser.parse(new ByteArrayInputStream(body), BOUNDARY)) {
+            assertTrue(form.getPart("field0").isInMemory());
+            assertFalse(form.getPart("field1").isInMemory());
+            assertTrue(form.getPart("field2").isInMemory());
+        }
+    }
+
+    @Test
+    public void testPartLimit() throws IOException {
+        byte[][] contents = new byte[5][];
+        Arrays.fill(contents, content(1));
+        MultipartParser parser = new MultipartParser(1024, null, 4, 1024);
+        byte[] body = body(contents);
+        assertThrows(BodyTooLargeException.class, () -> parser.parse(new ByteArrayInputStream(body), BOUNDARY));
+    }
+
+    private static final class Trickle extends InputStream {
+        private final byte[] data;
+        private final int step;
+        private int position;
+
+        private Trickle(byte[] data, int step) {
+            this.data = data;
+            this.step = step;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length ? data[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position == data.length) {
+                return -1;
+            }
+            int count = Math.min(Math.min(len, step), data.length - position);
+            System.arraycopy(data, position, b, off, count);
+            position += count;
+            return count;
+        }
+    }
+}
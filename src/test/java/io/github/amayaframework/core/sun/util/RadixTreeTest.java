@@ -0,0 +1,58 @@
+package io.github.amayaframework.core.sun.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RadixTreeTest {
+
+    @Test
+    public void testLongestPrefix() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.put("/api", "api");
+        tree.put("/api/users", "users");
+        assertEquals("users", tree.findLongestPrefix("/api/users/1"));
+        assertEquals("api", tree.findLongestPrefix("/api/orders"));
+        assertEquals("api", tree.findLongestPrefix("/api"));
+        assertNull(tree.findLongestPrefix("/ap"));
+        assertNull(tree.findLongestPrefix("/other"));
+    }
+
+    @Test
+    public void testRootPrefix() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.put("", "root");
+        tree.put("/static", "static");
+        assertEquals("root", tree.findLongestPrefix("/other"));
+        assertEquals("static", tree.findLongestPrefix("/static/a.css"));
+    }
+
+    @Test
+    public void testSplit() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.put("/users", "users");
+        // Splits the "/users" node into "/user" and "s"
+        tree.put("/user", "user");
+        // Splits again at the diverging character
+        tree.put("/uploads", "uploads");
+        assertEquals("users", tree.get("/users"));
+        assertEquals("user", tree.get("/user"));
+        assertEquals("uploads", tree.get("/uploads"));
+        // The intermediate nodes created by the splits have no values
+        assertNull(tree.get("/u"));
+        assertNull(tree.get("/use"));
+        assertEquals("user", tree.findLongestPrefix("/user1"));
+        assertEquals(3, tree.size());
+    }
+
+    @Test
+    public void testReplace() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.put("/a", "first");
+        tree.put("/ab", "ab");
+        assertEquals("first", tree.put("/a", "second"));
+        assertEquals("second", tree.get("/a"));
+        assertEquals(2, tree.size());
+    }
+}